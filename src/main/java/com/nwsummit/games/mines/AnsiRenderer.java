@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Renders a {@link MinesBoard} on an ANSI terminal. The whole board is drawn once, then
+ * only the cells that changed are redrawn. Escape sequences and cells are written into a
+ * small fixed byte buffer, which is written out on {@link #flush}, or whenever it's full,
+ * so a full redraw of a large board needs no more memory than a cell change.
+ * The board has to fit in the terminal, see {@link TerminalMines#checkFits}.
+ * <p>
+ * The status line is on the first terminal row and the board starts on the third, each
+ * cell taking two terminal columns.
+ */
+class AnsiRenderer {
+
+  private static final byte ESC = 0x1b;
+
+  // bytes needed to draw a cell: cursor position, colours, symbol and colours reset
+  private static final int CELL_BYTES = 32;
+  private static final int STATUS_BYTES = 256;
+  private static final int BUFFER_SIZE = 8192;
+
+  private static final int BOARD_ROW = 3;
+
+  // ANSI foreground colours of the numbers; index corresponds to MinesBoard.Cell::value
+  private static final int[] COLORS = {
+    37, 34, 32, 31, 34, 31, 36, 35, 30
+  };
+
+  private final MinesBoard board;
+  private final OutputStream out;
+  private final byte[] buffer;
+  private int size;
+
+  AnsiRenderer(MinesBoard board, OutputStream out) {
+    this.board = board;
+    this.out = out;
+    buffer = new byte[BUFFER_SIZE];
+  }
+
+  /**
+   * Clears the screen and draws the whole board, with the cursor on the specified cell.
+   */
+  void drawAll(int cursor) {
+    put(ESC).put('[').put("2J");
+    for (int i = 0; i < board.rows() * board.columns(); i++) {
+      drawCell(i, i == cursor);
+    }
+  }
+
+  /**
+   * Draws the cell of the specified index, in reverse video if under the cursor.
+   */
+  void drawCell(int index, boolean cursor) {
+    reserve(CELL_BYTES);
+    MinesBoard.Cell cell = board.get(index);
+    moveTo(BOARD_ROW + cell.row(), 1 + 2 * cell.col());
+
+    char symbol;
+    int color;
+    if (cell.isOpen()) {
+      color = cell.isMine() ? 31 : COLORS[cell.value()];
+      symbol = cell.isMine() ? '*' : (cell.value() == 0) ? ' ' : (char) ('0' + cell.value());
+    } else if (cell.isFlagged()) {
+      boolean wrong = board.ended() && !cell.isMine();
+      color = 31;
+      symbol = wrong ? 'X' : 'F';
+    } else if (board.ended() && cell.isMine()) {
+      color = 37;
+      symbol = '*';
+    } else {
+      color = 90;
+      symbol = '.';
+    }
+
+    put(ESC).put('[').put(cursor ? "7;1;" : "1;").putInt(color).put('m');
+    put(' ').put(symbol);
+    put(ESC).put('[').put("0m");
+  }
+
+  /**
+   * Draws the status line.
+   */
+  void drawStatus(String status) {
+    reserve(STATUS_BYTES);
+    moveTo(1, 1);
+    put(ESC).put('[').put("2K");
+    byte[] bytes = status.getBytes(StandardCharsets.US_ASCII);
+    int length = Math.min(bytes.length, STATUS_BYTES - 16);
+    System.arraycopy(bytes, 0, buffer, size, length);
+    size += length;
+  }
+
+  /**
+   * Moves the terminal cursor below the board, e.g. before exiting.
+   */
+  void moveBelow() {
+    reserve(STATUS_BYTES);
+    moveTo(BOARD_ROW + board.rows() + 1, 1);
+  }
+
+  /**
+   * Writes out, and clears, the buffered output.
+   */
+  void flush() throws IOException {
+    out.write(buffer, 0, size);
+    out.flush();
+    size = 0;
+  }
+
+  /**
+   * The number of bytes buffered.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Makes room for the specified number of bytes, writing out the buffer if needed.
+   */
+  private void reserve(int bytes) {
+    if (size + bytes > buffer.length) {
+      try {
+        flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  private void moveTo(int row, int col) {
+    put(ESC).put('[').putInt(row).put(';').putInt(col).put('H');
+  }
+
+  private AnsiRenderer put(byte b) {
+    buffer[size++] = b;
+    return this;
+  }
+
+  private AnsiRenderer put(char c) {
+    buffer[size++] = (byte) c;
+    return this;
+  }
+
+  private AnsiRenderer put(String ascii) {
+    for (int i = 0; i < ascii.length(); i++) {
+      buffer[size++] = (byte) ascii.charAt(i);
+    }
+    return this;
+  }
+
+  private AnsiRenderer putInt(int value) {
+    if (value >= 10) {
+      putInt(value / 10);
+    }
+    buffer[size++] = (byte) ('0' + value % 10);
+    return this;
+  }
+}
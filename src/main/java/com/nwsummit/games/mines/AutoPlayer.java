@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+/**
+ * Plays a board with a {@link DeductionStrategy}, only ever making forced moves: the cells
+ * deduced safe are opened and the ones deduced mines are flagged, until the game is won or
+ * nothing more can be deduced.
+ * <p>
+ * A layout is no-guess, from its first opened cell, when it can be cleared that way; see
+ * {@link #isNoGuess}.
+ */
+final class AutoPlayer {
+
+  private final DeductionStrategy strategy;
+
+  AutoPlayer(DeductionStrategy strategy) {
+    this.strategy = strategy;
+  }
+
+  /**
+   * Plays the specified board, opening first the specified cell, then making forced moves
+   * while there are any.
+   *
+   * @return whether the game was won.
+   */
+  boolean play(MinesBoard board, int row, int col) {
+    board.open(row, col);
+    return play(board);
+  }
+
+  /**
+   * Plays the specified board, making forced moves while there are any.
+   *
+   * @return whether the game was won.
+   */
+  boolean play(MinesBoard board) {
+    while (!board.ended()) {
+      DeductionStrategy.Deductions deductions = strategy.deduce(board);
+      if (deductions.isEmpty()) {
+        break; // stuck, a guess is needed
+      }
+      MoveBatch moves = new MoveBatch(deductions.safe().length + deductions.mines().length);
+      for (int index: deductions.mines()) {
+        moves.flag(index / board.columns(), index % board.columns());
+      }
+      for (int index: deductions.safe()) {
+        moves.open(index / board.columns(), index % board.columns());
+      }
+      board.apply(moves);
+    }
+    return board.ended() && !board.exploded();
+  }
+
+  /**
+   * Whether the layout of the specified level and seed, first opened at the specified cell,
+   * can be cleared without guessing. It's played on a board of its own.
+   */
+  boolean isNoGuess(Level level, Topology topology, long seed, int row, int col) {
+    MinesBoard board =
+      new MinesBoard(level.rows(), level.columns(), level.mines(), topology, seed);
+    return play(board, row, col);
+  }
+}
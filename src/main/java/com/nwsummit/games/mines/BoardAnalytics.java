@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+/**
+ * Difficulty metrics of a mines layout:
+ * <ul>
+ * <li>openings: the connected regions of cells with no adjascent mines, each cleared by a
+ * single click.</li>
+ * <li>isolated cells: the numbered cells not on the border of any opening, each needing its
+ * own click.</li>
+ * <li>3BV (Bechtel's Board Benchmark Value): the minimum number of clicks to clear the
+ * board without flags, i.e. openings + isolated cells.</li>
+ * <li>mine clusters: the connected groups of mines, and the size of the largest one.</li>
+ * </ul>
+ * The metrics are computed in two linear passes over primitive arrays: the first one flood
+ * fills the openings and the mine clusters, the second one counts the numbered cells not
+ * covered by the openings.
+ */
+final class BoardAnalytics {
+
+  private final int openings;
+  private final int isolated;
+  private final int clusters;
+  private final int largestCluster;
+
+  private BoardAnalytics(int openings, int isolated, int clusters, int largestCluster) {
+    this.openings = openings;
+    this.isolated = isolated;
+    this.clusters = clusters;
+    this.largestCluster = largestCluster;
+  }
+
+  /**
+   * Computes the metrics of the specified board, whose mines are placed.
+   */
+  static BoardAnalytics of(MinesBoard board) {
+    int[] values = new int[board.rows() * board.columns()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = board.get(i).value();
+    }
+    return of(values, board.neighbourTable());
+  }
+
+  /**
+   * Computes the metrics of the layout of the specified cell values, by cell index, with
+   * {@link MinesBoard#MINE} for the mines.
+   */
+  static BoardAnalytics of(int[] values, NeighbourTable table) {
+    int cells = values.length;
+    // cells of an opening (zero cells and their borders) or of a mine cluster
+    boolean[] covered = new boolean[cells];
+    int[] stack = new int[cells];
+
+    int openings = 0, clusters = 0, largestCluster = 0;
+    for (int i = 0; i < cells; i++) {
+      if (covered[i] || values[i] > 0) {
+        continue;
+      }
+      boolean mine = values[i] == MinesBoard.MINE;
+      int size = 0, top = 0;
+      stack[top++] = i;
+      covered[i] = true;
+      while (top > 0) {
+        int cell = stack[--top];
+        size += 1;
+        if (!mine && values[cell] != 0) {
+          continue; // border of the opening
+        }
+        for (int k = table.offsets[cell]; k < table.offsets[cell + 1]; k++) {
+          int adj = table.neighbours[k];
+          if (!covered[adj] && (values[adj] == MinesBoard.MINE) == mine) {
+            covered[adj] = true;
+            stack[top++] = adj;
+          }
+        }
+      }
+      if (mine) {
+        clusters += 1;
+        largestCluster = Math.max(largestCluster, size);
+      } else {
+        openings += 1;
+      }
+    }
+
+    int isolated = 0;
+    for (int i = 0; i < cells; i++) {
+      if (!covered[i] && values[i] > 0) {
+        isolated += 1;
+      }
+    }
+    return new BoardAnalytics(openings, isolated, clusters, largestCluster);
+  }
+
+  /**
+   * The minimum number of clicks to clear the board, without flags.
+   */
+  int bbbv() {
+    return openings + isolated;
+  }
+
+  /**
+   * The number of openings, i.e. regions of cells with no adjascent mines.
+   */
+  int openings() {
+    return openings;
+  }
+
+  /**
+   * The number of numbered cells not on the border of any opening.
+   */
+  int isolated() {
+    return isolated;
+  }
+
+  /**
+   * The number of clusters of adjascent mines.
+   */
+  int mineClusters() {
+    return clusters;
+  }
+
+  /**
+   * The number of mines of the largest cluster.
+   */
+  int largestMineCluster() {
+    return largestCluster;
+  }
+
+  /**
+   * The 3BV per second of a game cleared in the specified time.
+   */
+  double bbbvPerSecond(long timeMs) {
+    return (timeMs <= 0) ? 0 : bbbv() * 1000.0 / timeMs;
+  }
+
+  @Override
+  public String toString() {
+    return "BoardAnalytics[3BV=" + bbbv() + ",openings=" + openings + ",isolated=" + isolated
+      + ",clusters=" + clusters + ",largestCluster=" + largestCluster + "]";
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A ring buffer of the change events of a {@link MinesBoard}, written by the game thread
+ * and read by any number of consumers, e.g. the UI, a recorder, metrics or spectators.
+ * <p>
+ * The ring is preallocated: an event is a (type, cell index, value) triple stored in
+ * primitive arrays, so publishing and consuming events allocate nothing. The producer
+ * never waits for the consumers: each {@link Cursor} reads at its own pace, and a consumer
+ * falling behind by more than the capacity of the ring misses the overwritten events,
+ * which it's told about via {@link Handler#onMissed}.
+ * <p>
+ * There must be a single producer thread; each cursor must be used by a single thread.
+ */
+class BoardEventRing {
+
+  // event types
+  static final int OPENED = 0;
+  static final int FLAGGED = 1;
+  static final int UNFLAGGED = 2;
+  static final int EXPLODED = 3;
+  static final int WON = 4;
+
+  private final int mask;
+  private final int[] types;
+  private final int[] indexes;
+  private final int[] values;
+
+  /**
+   * The sequence of the next event to be written, i.e. the number of events claimed.
+   * Set before the slot is overwritten, so readers can detect torn reads.
+   */
+  private final AtomicLong claimed = new AtomicLong();
+
+  /**
+   * The number of events published, i.e. readable.
+   */
+  private final AtomicLong published = new AtomicLong();
+
+  /**
+   * Creates a ring of the specified capacity, rounded up to a power of 2.
+   */
+  BoardEventRing(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    int size = Integer.highestOneBit(capacity);
+    size = (size < capacity) ? size << 1 : size;
+    mask = size - 1;
+    types = new int[size];
+    indexes = new int[size];
+    values = new int[size];
+  }
+
+  /**
+   * The number of events the ring holds.
+   */
+  int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Publishes an event. To be called by the producer thread only.
+   */
+  void publish(int type, int index, int value) {
+    long seq = published.get();
+    claimed.set(seq + 1);
+    VarHandle.storeStoreFence(); // the claim is visible before the slot is overwritten
+
+    int slot = (int) seq & mask;
+    types[slot] = type;
+    indexes[slot] = index;
+    values[slot] = value;
+    published.set(seq + 1);
+  }
+
+  /**
+   * The number of events published so far.
+   */
+  long published() {
+    return published.get();
+  }
+
+  /**
+   * Creates a cursor reading the events published from now on.
+   */
+  Cursor cursor() {
+    return new Cursor(published.get());
+  }
+
+  /**
+   * Handler of the events read by a {@link Cursor}.
+   */
+  interface Handler {
+    void onEvent(int type, int index, int value);
+
+    /**
+     * Called when the specified number of events were overwritten before being read.
+     */
+    default void onMissed(long count) {
+    }
+  }
+
+  /**
+   * A consumer's position in the ring.
+   */
+  class Cursor {
+    private long next;
+
+    private Cursor(long next) {
+      this.next = next;
+    }
+
+    /**
+     * Hands the available events, up to the specified maximum, to the handler.
+     *
+     * @return the number of events handled.
+     */
+    int poll(Handler handler, int max) {
+      long available = published.get();
+      if (available - next > capacity()) {
+        handler.onMissed(available - capacity() - next);
+        next = available - capacity();
+      }
+
+      int handled = 0;
+      while (next < available && handled < max) {
+        int slot = (int) next & mask;
+        int type = types[slot];
+        int index = indexes[slot];
+        int value = values[slot];
+        VarHandle.loadLoadFence(); // read the slot before checking it wasn't overwritten
+        if (claimed.get() - next > capacity()) {
+          // lapped by the producer while reading, skip to the oldest event still there
+          long oldest = published.get() - capacity();
+          if (oldest > next) {
+            handler.onMissed(oldest - next);
+            next = oldest;
+          }
+          available = published.get();
+          continue;
+        }
+        handler.onEvent(type, index, value);
+        next += 1;
+        handled += 1;
+      }
+      return handled;
+    }
+
+    /**
+     * The number of events published but not yet read by this cursor.
+     */
+    long lag() {
+      return published.get() - next;
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A pool of pre-generated {@link MinesBoard}s per {@link Level}. Boards are generated on a
+ * background thread and the pool of a level is refilled every time a board is taken from
+ * it, so that starting a new game doesn't have to wait for the board to be generated.
+ * <p>
+ * The {@link Level#PREDEFINED} levels are always pooled, but only the custom level last
+ * taken is: its pool is replaced when another custom level is taken, not to keep a pool
+ * for every level ever played.
+ */
+class BoardPool {
+
+  /**
+   * Number of ready boards kept per level.
+   */
+  static final int CAPACITY = 2;
+
+  /**
+   * The pools of the predefined levels; not modified once created.
+   */
+  private final Map<Level, Queue<MinesBoard>> pools = new HashMap<>();
+
+  /**
+   * The custom level last taken, and its pool; null until a custom level is taken.
+   */
+  private Level customLevel;
+  private Queue<MinesBoard> customPool;
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "MinesBoardPool");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Creates a pool, prefilled in the background for the specified levels.
+   */
+  BoardPool(Level... levels) {
+    for (Level level: Level.PREDEFINED) {
+      pools.put(level, new ArrayBlockingQueue<>(CAPACITY));
+    }
+    prefill(levels);
+  }
+
+  /**
+   * Fills, in the background, the pools of the specified levels. A custom level replaces
+   * the pooled custom level, if any.
+   */
+  void prefill(Level... levels) {
+    for (Level level: levels) {
+      refill(level, poolOf(level));
+    }
+  }
+
+  /**
+   * Takes a board of the specified level. The returned future is already completed if a
+   * ready board is available, otherwise it completes once a board has been generated in
+   * the background. Either way the level's pool is refilled in the background, a custom
+   * level replacing the pooled custom level, if any.
+   * The future completes exceptionally if the board can't be generated, e.g. too many
+   * mines for the level's size.
+   */
+  CompletableFuture<MinesBoard> take(Level level) {
+    Queue<MinesBoard> pool = poolOf(level);
+    MinesBoard board = pool.poll();
+    CompletableFuture<MinesBoard> future = (board != null)
+      ? CompletableFuture.completedFuture(board)
+      : CompletableFuture.supplyAsync(level::newBoard, executor);
+    refill(level, pool);
+    return future;
+  }
+
+  /**
+   * Returns the number of ready boards for the specified level; 0 for a custom level other
+   * than the pooled one.
+   */
+  synchronized int available(Level level) {
+    Queue<MinesBoard> pool = pools.get(level);
+    if (pool == null && level.equals(customLevel)) {
+      pool = customPool;
+    }
+    return (pool == null) ? 0 : pool.size();
+  }
+
+  /**
+   * Stops the generation of boards.
+   */
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Returns the pool of the specified level, replacing the pool of the previous custom
+   * level if it's another custom level.
+   */
+  private synchronized Queue<MinesBoard> poolOf(Level level) {
+    Queue<MinesBoard> pool = pools.get(level);
+    if (pool != null) {
+      return pool;
+    }
+    if (!level.equals(customLevel)) {
+      customLevel = level;
+      customPool = new ArrayBlockingQueue<>(CAPACITY);
+    }
+    return customPool;
+  }
+
+  private synchronized boolean isPooled(Queue<MinesBoard> pool) {
+    return pool == customPool || pools.containsValue(pool);
+  }
+
+  /**
+   * Schedules the generation of boards until the pool of the level is full, or replaced.
+   */
+  private void refill(Level level, Queue<MinesBoard> pool) {
+    try {
+      executor.execute(() -> {
+        while (pool.size() < CAPACITY && isPooled(pool)
+               && !Thread.currentThread().isInterrupted()) {
+          try {
+            pool.offer(level.newBoard());
+          } catch (IllegalArgumentException e) {
+            return; // not a valid level, reported by take
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // the pool has been shut down, no more refill
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * The states of the cells of a board packed in a byte per cell, by cell index, for the
+ * board-wide scans: a bit for each of {@link #MINE}, {@link #OPEN} and {@link #FLAGGED}.
+ * <p>
+ * Scans look for the cells whose bits under a mask match a pattern, e.g. the flagged cells
+ * that aren't mines. They read the array 8 cells at a time, as longs, and match the 8 cells
+ * at once with word arithmetic (SWAR): the bytes of {@code (word & mask) ^ pattern} are
+ * zero for the matching cells, and zero bytes are found with a carry-free add.
+ * <p>
+ * The scans don't use the Vector API: jdk.incubator.vector is still incubating, so it
+ * needs {@code --add-modules jdk.incubator.vector} to compile and to launch, warns at
+ * startup, and its API may change from one JDK to the next. The word-at-a-time scan runs
+ * on any JDK and gets most of the gain over a byte per cell.
+ * <p>
+ * A cell is only ever written by one thread at a time, e.g. the task opening its tile, and
+ * elements of a byte array are written independently of each other.
+ */
+final class CellStates {
+
+  static final int MINE = 1;
+  static final int OPEN = 1 << 1;
+  static final int FLAGGED = 1 << 2;
+
+  // the longs of the array, byte 0 of a long being its lowest
+  private static final VarHandle LONGS =
+    MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+  private static final long ONES = 0x0101_0101_0101_0101L;
+  private static final long LOWS = 0x7F7F_7F7F_7F7F_7F7FL;
+  private static final long HIGHS = 0x8080_8080_8080_8080L;
+
+  private final byte[] states;
+
+  CellStates(int cells) {
+    states = new byte[cells];
+  }
+
+  /**
+   * Sets the specified bits of the cell of the specified index.
+   */
+  void set(int index, int bits) {
+    states[index] |= bits;
+  }
+
+  /**
+   * Clears the specified bits of the cell of the specified index.
+   */
+  void clear(int index, int bits) {
+    states[index] &= ~bits;
+  }
+
+  /**
+   * The bits of the cell of the specified index.
+   */
+  int get(int index) {
+    return states[index];
+  }
+
+  /**
+   * The number of cells whose bits under the mask are the pattern.
+   */
+  int count(int mask, int pattern) {
+    int count = 0, i = 0;
+    long masks = mask * ONES, patterns = pattern * ONES;
+    for (int end = states.length - Long.BYTES; i <= end; i += Long.BYTES) {
+      count += Long.bitCount(matches((long) LONGS.get(states, i), masks, patterns));
+    }
+    for (; i < states.length; i++) {
+      if ((states[i] & mask) == pattern) {
+        count += 1;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * The index of the first cell, from the specified index, whose bits under the mask are
+   * the pattern; -1 if none.
+   */
+  int next(int from, int mask, int pattern) {
+    int i = from;
+    long masks = mask * ONES, patterns = pattern * ONES;
+    for (int end = states.length - Long.BYTES; i <= end; i += Long.BYTES) {
+      long matches = matches((long) LONGS.get(states, i), masks, patterns);
+      if (matches != 0) {
+        return i + Long.numberOfTrailingZeros(matches) / Byte.SIZE;
+      }
+    }
+    for (; i < states.length; i++) {
+      if ((states[i] & mask) == pattern) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  // the high bit of each matching byte of the word; the bits of a state are all low bits
+  private static long matches(long word, long masks, long patterns) {
+    long diff = (word & masks) ^ patterns;
+    return ~((diff + LOWS) | diff) & HIGHS;
+  }
+}
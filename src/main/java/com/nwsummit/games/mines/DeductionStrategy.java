@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.util.Arrays;
+
+/**
+ * A strategy deducing, from the visible state of a {@link MinesBoard}, the unknown cells
+ * that are certainly safe and the ones that are certainly mines. Flags are taken as mines.
+ *
+ * @see GaussianDeduction
+ * @see AutoPlayer
+ */
+interface DeductionStrategy {
+
+  /**
+   * Deduces the forced cells of the specified board.
+   *
+   * @throws IllegalStateException if the visible board state is inconsistent, e.g. a
+   *         numbered cell surrounded by more flags than its number.
+   */
+  Deductions deduce(MinesBoard board);
+
+  /**
+   * The cells deduced by a strategy, by cell index in increasing order.
+   */
+  final class Deductions {
+    private final int[] safe;
+    private final int[] mines;
+
+    Deductions(int[] safe, int[] mines) {
+      this.safe = safe;
+      this.mines = mines;
+    }
+
+    /**
+     * The indexes of the unknown cells that are certainly not mines.
+     */
+    int[] safe() {
+      return safe;
+    }
+
+    /**
+     * The indexes of the unknown cells that are certainly mines.
+     */
+    int[] mines() {
+      return mines;
+    }
+
+    /**
+     * Whether nothing could be deduced.
+     */
+    boolean isEmpty() {
+      return safe.length == 0 && mines.length == 0;
+    }
+
+    @Override
+    public String toString() {
+      return "Deductions[safe=" + Arrays.toString(safe) + ",mines=" + Arrays.toString(mines)
+        + "]";
+    }
+  }
+}
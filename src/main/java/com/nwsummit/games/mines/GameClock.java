@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The clocks of the games, all driven by a single {@link TimingWheel}: each game
+ * {@link Session} is notified of its elapsed time every second, and expires when it runs
+ * out of time or is left idle for too long.
+ * <p>
+ * Elapsed times are measured from the monotonic clock of the wheel, not counted in ticks,
+ * so the final time of a game doesn't depend on when the ticks ran.
+ */
+final class GameClock {
+
+  /**
+   * The period of the elapsed time notifications.
+   */
+  static final long TICK_MS = 1000;
+
+  /**
+   * Why a session expired.
+   */
+  enum Expiry {
+    /** The time limit of the game was reached. */
+    TIME_LIMIT,
+    /** No activity for the idle timeout. */
+    IDLE
+  }
+
+  /**
+   * Listener of a session, called on the wheel's thread.
+   */
+  interface Listener {
+    /**
+     * The session has been running for the specified time, about a whole number of
+     * {@link GameClock#TICK_MS}.
+     */
+    void onTick(Session session, long elapsedMs);
+
+    /**
+     * The session expired, it's stopped.
+     */
+    default void onExpired(Session session, Expiry expiry) {
+    }
+  }
+
+  private static GameClock shared;
+
+  private final TimingWheel wheel;
+
+  /**
+   * Creates the clocks driven by the specified wheel.
+   */
+  GameClock(TimingWheel wheel) {
+    this.wheel = wheel;
+  }
+
+  /**
+   * The clocks shared by all the games of this JVM, running on a single daemon thread.
+   */
+  static synchronized GameClock shared() {
+    if (shared == null) {
+      TimingWheel wheel = new TimingWheel(10, TimeUnit.MILLISECONDS, 512);
+      wheel.start("MinesGameClock");
+      shared = new GameClock(wheel);
+    }
+    return shared;
+  }
+
+  /**
+   * Starts the clock of a game.
+   *
+   * @param timeLimitMs the time after which the session expires; 0 for none.
+   * @param idleTimeoutMs the time without {@link Session#touch} after which the session
+   *        expires; 0 for none.
+   */
+  Session start(Listener listener, long timeLimitMs, long idleTimeoutMs) {
+    if (timeLimitMs < 0 || idleTimeoutMs < 0) {
+      throw new IllegalArgumentException("Invalid time limit or idle timeout: "
+                                         + timeLimitMs + ", " + idleTimeoutMs);
+    }
+    Session session = new Session(listener, idleTimeoutMs);
+    synchronized (session) {
+      session.tick = wheel.schedule(session::tick, TICK_MS, TimeUnit.MILLISECONDS);
+      if (timeLimitMs > 0) {
+        session.limit = wheel.schedule(() -> session.expire(Expiry.TIME_LIMIT), timeLimitMs,
+                                       TimeUnit.MILLISECONDS);
+      }
+      session.touch();
+    }
+    return session;
+  }
+
+  /**
+   * The clock of a game, running until stopped or expired.
+   */
+  final class Session {
+    private final Listener listener;
+    private final long idleTimeoutMs;
+    private final long startNanos;
+
+    // the time it stopped; -1 while running
+    private long stopNanos = -1;
+    // the number of ticks notified
+    private long ticks;
+
+    private TimingWheel.Timeout tick, limit, idle;
+
+    private Session(Listener listener, long idleTimeoutMs) {
+      this.listener = listener;
+      this.idleTimeoutMs = idleTimeoutMs;
+      this.startNanos = wheel.nanoTime();
+    }
+
+    /**
+     * Records some activity of the game, postponing its idle timeout.
+     */
+    synchronized void touch() {
+      if (stopNanos >= 0 || idleTimeoutMs == 0) {
+        return;
+      }
+      if (idle != null) {
+        idle.cancel();
+      }
+      idle = wheel.schedule(() -> expire(Expiry.IDLE), idleTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the clock, if still running.
+     *
+     * @return the final elapsed time, in milliseconds.
+     */
+    synchronized long stop() {
+      if (stopNanos < 0) {
+        stopNanos = wheel.nanoTime();
+        cancelAll();
+      }
+      return elapsedMs();
+    }
+
+    /**
+     * Whether the clock is still running, i.e. neither stopped nor expired.
+     */
+    synchronized boolean isRunning() {
+      return stopNanos < 0;
+    }
+
+    /**
+     * The elapsed time, until now or until the clock stopped, in milliseconds.
+     */
+    synchronized long elapsedMs() {
+      long end = (stopNanos < 0) ? wheel.nanoTime() : stopNanos;
+      return TimeUnit.NANOSECONDS.toMillis(end - startNanos);
+    }
+
+    private void cancelAll() {
+      tick.cancel();
+      if (limit != null) {
+        limit.cancel();
+      }
+      if (idle != null) {
+        idle.cancel();
+      }
+    }
+
+    private void tick() {
+      long elapsedMs;
+      synchronized (this) {
+        if (stopNanos >= 0) {
+          return;
+        }
+        // the next tick on the start's whole seconds, not to drift
+        ticks += 1;
+        long next = startNanos + TimeUnit.MILLISECONDS.toNanos((ticks + 1) * TICK_MS);
+        tick = wheel.schedule(this::tick, Math.max(0, next - wheel.nanoTime()),
+                              TimeUnit.NANOSECONDS);
+        elapsedMs = elapsedMs();
+      }
+      listener.onTick(this, elapsedMs);
+    }
+
+    private void expire(Expiry expiry) {
+      synchronized (this) {
+        if (stopNanos >= 0) {
+          return;
+        }
+        stopNanos = wheel.nanoTime();
+        cancelAll();
+      }
+      listener.onExpired(this, expiry);
+    }
+  }
+}
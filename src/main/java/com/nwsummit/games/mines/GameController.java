@@ -10,16 +10,16 @@ package com.nwsummit.games.mines;
 
 import static javafx.scene.paint.Color.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.ChoiceBox;
-import javafx.scene.input.MouseButton;
-import javafx.scene.input.MouseEvent;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
@@ -40,18 +40,24 @@ class GameController {
     BLACK, BLUE, GREEN, RED, DARKBLUE, DARKRED, DARKGREEN, DARKMAGENTA, BLACK
   };
 
-  /**
-   * Regex for parsing the game level (rows x columss : mines) input from the UI.
-   */
-  private final Pattern REGEX_LEVEL = Pattern.compile("(\\d+)x(\\d+):(\\d+)");
+  // file where the games won are logged
+  private static final Path LEADERBOARD_LOG =
+    Path.of(System.getProperty("user.home"), ".mines", "leaderboard.log");
 
   // Unicode symbols for flag and mine
   private final String SYM_FLAG = "\u2691", SYM_MINE = "\u2737";
 
+  // number of board changes kept for the squares to be updated, beyond which they're all
+  // redrawn, e.g. after a large cascade
+  private static final int EVENTS_CAPACITY = 1 << 16;
+
 
   @FXML
   private ChoiceBox<String> level;
 
+  @FXML
+  private ToggleButton heatmap;
+
   @FXML
   private Text txFlags;
 
@@ -66,7 +72,61 @@ class GameController {
   private int flags, mines;
 
   private int elapsedTime;
-  private Timer timer;
+
+  /**
+   * The clock of the game, on the clocks shared by all the games; null until the first
+   * move, and once the game ended.
+   */
+  private GameClock.Session clock;
+
+  /**
+   * The changes of the current board, read into the squares after each batch of moves.
+   */
+  private final BoardEventRing events = new BoardEventRing(EVENTS_CAPACITY);
+  private BoardEventRing.Cursor eventsCursor;
+
+  /**
+   * The leaderboard of the games won, opened in the background once the first game started.
+   */
+  private final CompletableFuture<Leaderboard> leaderboard = new CompletableFuture<>();
+
+  /**
+   * Pool of ready boards, for starting new games without waiting for the board generation.
+   * Prefilled once the first game started, not to compete with the startup.
+   */
+  private final BoardPool boardPool = new BoardPool();
+
+  /**
+   * Whether the background services (leaderboard, board pool prefill) were started.
+   */
+  private boolean servicesStarted;
+
+  /**
+   * Called once the next game has started, e.g. for the startup metrics.
+   */
+  private Runnable onGameStarted;
+
+  /**
+   * Background analysis of the board for the hint and the heatmap.
+   */
+  private final HintService hints = new HintService(Platform::runLater);
+
+  // index of the safest cell of the current board state, -1 if not known (yet)
+  private int safest = -1;
+
+  // whether the hint is to be shown for the current board state
+  private boolean hintRequested;
+
+  /**
+   * Dispatcher of the mouse and keyboard input on the mines pane, created with the first
+   * game.
+   */
+  private InputDispatcher inputDispatcher;
+
+  /**
+   * The board being prepared for the latest new game request.
+   */
+  private CompletableFuture<MinesBoard> pendingBoard;
 
   /**
    * Reference to the primary stage/window. This allows resizing the window when changing
@@ -76,33 +136,127 @@ class GameController {
 
   GameController(Stage stage) {
     this.stage = stage;
-    stage.setOnCloseRequest(event -> stopTimer());
+    stage.setOnCloseRequest(event -> {
+        stopTimer();
+        hints.shutdown();
+        boardPool.shutdown();
+        // the pending results are written out off the FX thread, by a non-daemon thread
+        // for the JVM not to exit before
+        leaderboard.thenAccept(board -> new Thread(() -> {
+            try {
+              board.close();
+            } catch (IOException e) {
+              // closing anyway
+            }
+          }, "MinesLeaderboardClose").start());
+      });
   }
 
   /**
-   * Initializes the mines field for a new game.
+   * Initializes the mines field for a new game. The board is taken from the {@link BoardPool}
+   * and the game starts on the FX thread once the board is ready.
    */
   @FXML
   void newGame() {
-    stopTimer(); // in case a game is still running
+    Level gameLevel = Level.parse(level.getValue());
+    CompletableFuture<MinesBoard> future = boardPool.take(gameLevel);
+    pendingBoard = future;
+    if (future.isDone() && !future.isCompletedExceptionally()) {
+      startGame(future.join());
+    } else {
+      future.whenCompleteAsync((board, error) -> {
+          // ignore the board if a newer game has been requested in the meantime
+          if (pendingBoard != future) {
+            return;
+          }
+          if (error != null) {
+            pendingBoard = null; // back to the current game, if any
+            Throwable cause = (error.getCause() != null) ? error.getCause() : error;
+            System.err.println("Failed to create the board of " + gameLevel + ": " + cause);
+          } else {
+            startGame(board);
+          }
+        }, Platform::runLater);
+    }
+  }
 
-    Matcher matcher = REGEX_LEVEL.matcher(level.getValue());
-    if (!matcher.matches())
-      throw new IllegalArgumentException("Invalid game level: " + level.getValue());
+  /**
+   * Starts a new game with the specified board.
+   */
+  private void startGame(MinesBoard board) {
+    pendingBoard = null;
+    stopTimer(); // in case a game is still running
 
     // initialize the model
-    int rows = Integer.parseInt(matcher.group(1));
-    int columns = Integer.parseInt(matcher.group(2));
-    mines = Integer.parseInt(matcher.group(3));
-    minesBoard = new MinesBoard(rows, columns, mines);
+    if (minesBoard != null) {
+      minesBoard.publishTo(null);
+    }
+    minesBoard = board;
+    board.publishTo(events);
+    eventsCursor = events.cursor();
+    mines = board.mines();
     flags = 0;
     elapsedTime = 0;
 
     // initialize the UI
-    minesPane.initialize(rows, columns, this::handle);
+    minesPane.initialize(board.rows(), board.columns());
+    if (inputDispatcher == null) {
+      inputDispatcher = new InputDispatcher(minesPane, this::applyMoves);
+    } else {
+      inputDispatcher.reset();
+    }
+    minesPane.requestFocus();
     updateFlags();
     updateElapsedTime();
+    boardChanged();
     stage.sizeToScene();
+
+    if (onGameStarted != null) {
+      Runnable listener = onGameStarted;
+      onGameStarted = null;
+      listener.run();
+    }
+    if (!servicesStarted) {
+      servicesStarted = true;
+      Platform.runLater(this::startServices);
+    }
+  }
+
+  /**
+   * Starts the services not needed for the first game: opens the leaderboard and prefills
+   * the board pool.
+   */
+  private void startServices() {
+    CompletableFuture.runAsync(() -> {
+        try {
+          leaderboard.complete(Leaderboard.open(LEADERBOARD_LOG));
+        } catch (IOException | RuntimeException e) {
+          leaderboard.completeExceptionally(
+            new IllegalStateException("Failed to open leaderboard", e));
+        }
+      });
+    boardPool.prefill(Level.BEGINNER, Level.INTERMEDIATE, Level.EXPERT);
+  }
+
+  /**
+   * Sets the listener called, once, when the next game has started, i.e. the board is
+   * displayed and playable.
+   */
+  void setOnGameStarted(Runnable listener) {
+    onGameStarted = listener;
+  }
+
+  /**
+   * Sets the UI components, when the layout is built programmatically rather than loaded
+   * from FXML (see {@link MinesLayout}).
+   */
+  void bind(ChoiceBox<String> level, ToggleButton heatmap, Text txFlags, Text txTime,
+            MinesPane minesPane) {
+    this.level = level;
+    this.heatmap = heatmap;
+    this.txFlags = txFlags;
+    this.txTime = txTime;
+    this.minesPane = minesPane;
   }
 
   /**
@@ -122,67 +276,218 @@ class GameController {
   }
 
   private void startTimer() {
-    timer = new Timer("MinesGameTimer");
-    timer.schedule(new TimerTask() {
-	public void run() {
-          elapsedTime += 1;
+    clock = GameClock.shared().start((session, elapsedMs) -> Platform.runLater(() -> {
+        if (session == clock) {
+          elapsedTime = (int) (elapsedMs / 1000);
           updateElapsedTime();
         }
-      }, 1000L, 1000L);
+      }), 0, 0);
   }
 
-  private void stopTimer() {
-    if (timer != null) {
-      timer.cancel();
-      timer = null;
+  /**
+   * Stops the clock of the game, if running.
+   *
+   * @return the final time of the game, in milliseconds.
+   */
+  private long stopTimer() {
+    if (clock == null) {
+      return 0;
     }
+    long timeMs = clock.stop();
+    clock = null;
+    return timeMs;
   }
 
   /**
-   * Handles the mouse event emitted from the specified square.
+   * Applies the moves input since the last ones, i.e. coalesced by the
+   * {@link InputDispatcher}, and updates the changed squares.
    */
-  private void handle(MouseEvent event, MinesPane.Square square) {
-    if (timer == null && !minesBoard.ended()) {
+  private void applyMoves(MoveBatch moves) {
+    if (pendingBoard != null || minesBoard.ended()) {
+      return; // the new game isn't ready yet, or the game is over
+    }
+    if (clock == null) {
       startTimer();
     }
-    MouseButton button = event.getButton();
-    if (button == MouseButton.PRIMARY) {
-      updateOpen(square.row(), square.col());
-      if (minesBoard.ended()) {
-        stopTimer();
-        revealMinesField();
+    MoveDelta delta = minesBoard.apply(moves);
+    if (eventsCursor.lag() > events.capacity()) {
+      // changes overwritten before being read
+      redrawSquares();
+      eventsCursor = events.cursor();
+    } else {
+      eventsCursor.poll(this::showEvent, Integer.MAX_VALUE);
+    }
+    updateFlags();
+
+    if (delta.ended()) {
+      int timeMs = (int) stopTimer();
+      revealMinesField();
+      if (delta.won()) {
+        recordWin(timeMs);
+        showBbbvPerSecond(timeMs);
       }
     }
-    else if (button == MouseButton.SECONDARY) {
-      State state = minesBoard.flag(square.row(), square.col());
-      if (state == State.FLAGGED) {
+    boardChanged();
+  }
+
+  /**
+   * Updates the square of the board change read from the events.
+   */
+  private void showEvent(int type, int index, int value) {
+    MinesPane.Square square = minesPane.get(index / minesBoard.columns(),
+                                            index % minesBoard.columns());
+    switch (type) {
+      case BoardEventRing.OPENED:
+        if (value == MinesBoard.MINE) {
+          square.open(SYM_MINE, RED);
+        } else {
+          square.open(NUMBS[value], COLORS[value]);
+        }
+        break;
+      case BoardEventRing.FLAGGED:
         flags += 1;
         square.show(SYM_FLAG, BLACK);
-      }
-      else if (state == State.UNOPEN) {
+        break;
+      case BoardEventRing.UNFLAGGED:
         flags -= 1;
         square.show("", BLACK);
-      }
-      updateFlags();
+        break;
+      default:
+        break; // the end of the game is told by the moves' delta
     }
   }
 
   /**
-   * Updates the UI with opened square(s).
+   * Redraws all the squares, and counts the flags, from the board.
    */
-  private void updateOpen(int row, int col) {
-    List<MinesBoard.Cell> openedCells = minesBoard.open(row, col);
-    for (MinesBoard.Cell cell: openedCells) {
-      MinesPane.Square square = minesPane.get(cell.row(), cell.col());
-      int value = cell.value();
-      if (value == MinesBoard.MINE) {
-        square.open(SYM_MINE, RED);
+  private void redrawSquares() {
+    flags = 0;
+    for (MinesBoard.Cell cell: minesBoard) {
+      if (cell.isOpen()) {
+        showEvent(BoardEventRing.OPENED, cell.index(), cell.value());
+      } else if (cell.isFlagged()) {
+        showEvent(BoardEventRing.FLAGGED, cell.index(), 0);
       } else {
-        square.open(NUMBS[value], COLORS[value]);
+        minesPane.get(cell.row(), cell.col()).show("", BLACK);
+      }
+    }
+  }
+
+  /**
+   * The latencies from the input of moves to the frame showing them.
+   */
+  LatencyStats inputLatency() {
+    return (inputDispatcher == null) ? new LatencyStats(1) : inputDispatcher.latency();
+  }
+
+  /**
+   * Shows the safest square to open next. The board is analysed in the background, if not
+   * already, and the hint shown once the analysis gives its first estimates.
+   */
+  @FXML
+  void hint() {
+    if (minesBoard == null || pendingBoard != null || minesBoard.ended()) {
+      return;
+    }
+    hintRequested = true;
+    if (safest >= 0) {
+      showHint();
+    } else if (!heatmap.isSelected()) {
+      hints.restart(minesBoard, this::showAnalysis);
+    } // else the analysis for the heatmap is already running
+  }
+
+  /**
+   * Shows, or hides, the mine probability heatmap.
+   */
+  @FXML
+  void toggleHeatmap() {
+    if (minesBoard == null || pendingBoard != null || minesBoard.ended()) {
+      minesPane.showHeatmap(null);
+      return;
+    }
+    if (heatmap.isSelected()) {
+      hints.restart(minesBoard, this::showAnalysis);
+    } else {
+      minesPane.showHeatmap(null);
+      if (!hintRequested) {
+        hints.cancel();
       }
     }
   }
 
+  /**
+   * Discards the analysis of the previous board state, and restarts it if the heatmap is
+   * shown.
+   */
+  private void boardChanged() {
+    hintRequested = false;
+    safest = -1;
+    minesPane.showHint(null);
+    if (minesBoard.ended()) {
+      hints.cancel();
+      minesPane.showHeatmap(null);
+    } else if (heatmap.isSelected()) {
+      hints.restart(minesBoard, this::showAnalysis);
+    } else {
+      hints.cancel();
+    }
+  }
+
+  /**
+   * Applies the results of the background analysis to the UI.
+   */
+  private void showAnalysis(float[] probabilities, int safest, boolean done) {
+    this.safest = safest;
+    if (heatmap.isSelected()) {
+      if (probabilities != null) {
+        // shade the unopen and unflagged squares only
+        for (MinesBoard.Cell cell: minesBoard) {
+          if (!cell.isUnopen()) {
+            probabilities[cell.index()] = -1;
+          }
+        }
+      }
+      minesPane.showHeatmap(probabilities);
+    }
+    if (hintRequested) {
+      showHint();
+    }
+  }
+
+  private void showHint() {
+    int columns = minesBoard.columns();
+    minesPane.showHint((safest < 0) ? null : minesPane.get(safest / columns, safest % columns));
+  }
+
+  /**
+   * Shows the 3BV/s of the game won, i.e. the minimum number of clicks needed to clear the
+   * board per second.
+   */
+  private void showBbbvPerSecond(int timeMs) {
+    BoardAnalytics analytics = BoardAnalytics.of(minesBoard);
+    txTime.setText(String.format("%s  3BV/s %.2f", txTime.getText(),
+                                 analytics.bbbvPerSecond(timeMs)));
+  }
+
+  /**
+   * Records the game won in the leaderboard.
+   */
+  private void recordWin(int timeMs) {
+    Level level = new Level(minesBoard.rows(), minesBoard.columns(), minesBoard.mines());
+    long seed = minesBoard.seed();
+    int first = minesBoard.firstOpened();
+    Instant date = Instant.now();
+    leaderboard.thenAccept(board -> {
+        board.addAsync(level, seed, first / level.columns(), first % level.columns(), timeMs,
+                       date)
+          .exceptionally(e -> {
+              System.err.println("Failed to record the game: " + e);
+              return null;
+            });
+      });
+  }
+
   /**
    * Reveals the mines field at the end of the gam. This includes showing location of
    * unflagged mines, and wrongly flagged mines.
@@ -192,18 +497,9 @@ class GameController {
       MinesPane.Square square = minesPane.get(wrongFlag.row(), wrongFlag.col());
       square.show(SYM_FLAG, RED);
     }
-    for (MinesBoard.Cell mine: minesBoard.getMines()) {
-      if (mine.isUnopen()) {
-        MinesPane.Square square = minesPane.get(mine.row(), mine.col());
-        square.show(SYM_MINE, BLACK);
-      }
+    for (MinesBoard.Cell mine: minesBoard.getHiddenMines()) {
+      MinesPane.Square square = minesPane.get(mine.row(), mine.col());
+      square.show(SYM_MINE, BLACK);
     }
   }
-
-  /**
-   * Interface for handling {@link MouseEvent} emitted by a {@link MinesPane.Square}.
-   */
-  interface SquareMouseHandler {
-    void handle(MouseEvent event, MinesPane.Square square);
-  }
 }
@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.util.Arrays;
+
+/**
+ * Deduces the forced cells of a board by Gaussian elimination of its frontier constraints.
+ * <p>
+ * Each open numbered cell gives a linear equation over its unknown neighbours, the
+ * frontier cells: the sum of their mines (0 or 1 each) is its number less its adjascent
+ * flags. An equation whose number is either 0 or its number of cells forces its cells on
+ * its own; those are marked first, then taken out of the other equations, which may force
+ * their cells in turn, by a worklist of the equations. Then, the equations left are split
+ * into independent groups, i.e. not sharing any frontier cell, and each group is reduced
+ * by Gauss-Jordan elimination. Any reduced equation whose number is either the sum of its positive
+ * coefficients, or minus the sum of its negative ones, forces all its cells: the former
+ * only holds if the positive cells are mines and the negative cells safe, the latter the
+ * other way round.
+ * <p>
+ * Equations are rows of coefficients in -1, 0 or 1, packed in two {@code long[]} bitsets:
+ * the positive and the negative coefficients. A row is reduced with a few bitwise
+ * operations per 64 cells. Reductions that would make a coefficient out of -1..1 are
+ * skipped; the row is kept as is, which is still a valid equation, only less reduced. The
+ * cells forced by single equations having been marked first, the deductions include at
+ * least those of the single equations rule.
+ * <p>
+ * Cells deduced are taken as known and the elimination is run again until nothing more
+ * is deduced. Last, the total number of mines forces all the remaining unknown cells when
+ * either none or all of them are mines.
+ */
+final class GaussianDeduction implements DeductionStrategy {
+
+  /**
+   * Maximum number of equations eliminated together. The equations of a larger group are
+   * eliminated by blocks of that many, in cell order; fewer cells are deduced then, but
+   * the elimination cost stays bounded.
+   */
+  static final int MAX_ROWS = 1024;
+
+  // knowledge of the board cells
+  private static final byte UNKNOWN = 0, SAFE = 1, MINE = 2;
+
+  @Override
+  public Deductions deduce(MinesBoard board) {
+    int cells = board.rows() * board.columns();
+    byte[] known = new byte[cells];
+    int knownMines = 0;
+    for (int i = 0; i < cells; i++) {
+      MinesBoard.Cell cell = board.get(i);
+      if (cell.isFlagged() || (cell.isOpen() && cell.isMine())) {
+        known[i] = MINE;
+        knownMines += 1;
+      } else if (cell.isOpen()) {
+        known[i] = SAFE;
+      }
+    }
+    byte[] initial = known.clone();
+
+    while (eliminate(board, known) > 0) {
+      // again, with the cells deduced taken as known
+    }
+
+    int unknownCells = 0;
+    for (int i = 0; i < cells; i++) {
+      if (known[i] == UNKNOWN) {
+        unknownCells += 1;
+      } else if (known[i] == MINE && initial[i] == UNKNOWN) {
+        knownMines += 1;
+      }
+    }
+    int unknownMines = board.mines() - knownMines;
+    check(0 <= unknownMines && unknownMines <= unknownCells,
+          "Inconsistent number of unknown mines: %d", unknownMines);
+    if (unknownMines == 0 || unknownMines == unknownCells) {
+      byte forced = (unknownMines == 0) ? SAFE : MINE;
+      for (int i = 0; i < cells; i++) {
+        if (known[i] == UNKNOWN) {
+          known[i] = forced;
+        }
+      }
+    }
+
+    int safe = 0, mines = 0;
+    for (int i = 0; i < cells; i++) {
+      if (initial[i] == UNKNOWN) {
+        if (known[i] == SAFE) safe++; else if (known[i] == MINE) mines++;
+      }
+    }
+    int[] safeCells = new int[safe], mineCells = new int[mines];
+    safe = mines = 0;
+    for (int i = 0; i < cells; i++) {
+      if (initial[i] == UNKNOWN) {
+        if (known[i] == SAFE) safeCells[safe++] = i;
+        else if (known[i] == MINE) mineCells[mines++] = i;
+      }
+    }
+    return new Deductions(safeCells, mineCells);
+  }
+
+  /**
+   * Builds the equations of the unknown cells, eliminates them and marks the cells forced.
+   *
+   * @return the number of cells newly marked.
+   */
+  private static int eliminate(MinesBoard board, byte[] known) {
+    NeighbourTable table = board.neighbourTable();
+    int cells = known.length;
+
+    // the equations in CSR form, over the frontier cells numbered as variables
+    int[] variableOf = new int[cells];
+    Arrays.fill(variableOf, -1);
+    int[] cellOf = new int[16];
+    int variables = 0;
+    int[] rowOffsets = new int[16], rowVariables = new int[64], rhs = new int[16];
+    int rows = 0;
+    for (int i = 0; i < cells; i++) {
+      MinesBoard.Cell cell = board.get(i);
+      if (!cell.isOpen() || cell.isMine()) {
+        continue;
+      }
+      int mines = cell.value(), start = rowOffsets[rows], end = start;
+      for (int k = table.offsets[i]; k < table.offsets[i + 1]; k++) {
+        int adj = table.neighbours[k];
+        if (known[adj] == MINE) {
+          mines -= 1;
+        } else if (known[adj] == UNKNOWN) {
+          if (variableOf[adj] < 0) {
+            if (variables == cellOf.length) {
+              cellOf = Arrays.copyOf(cellOf, 2 * variables);
+            }
+            cellOf[variables] = adj;
+            variableOf[adj] = variables++;
+          }
+          if (end == rowVariables.length) {
+            rowVariables = Arrays.copyOf(rowVariables, 2 * end);
+          }
+          rowVariables[end++] = variableOf[adj];
+        }
+      }
+      check(0 <= mines && mines <= end - start, "Inconsistent number at %s", cell);
+      if (end > start) {
+        if (rows + 1 == rhs.length) {
+          rhs = Arrays.copyOf(rhs, 2 * rhs.length);
+          rowOffsets = Arrays.copyOf(rowOffsets, 2 * rowOffsets.length);
+        }
+        rhs[rows] = mines;
+        rowOffsets[++rows] = end;
+      }
+    }
+
+    // the equations forcing their cells on their own, which a reduction may lose; marking
+    // their cells updates the equations sharing them, which may force their cells in turn
+    int marked = propagate(rowOffsets, rowVariables, rhs, rows, cellOf, variables, known);
+    if (marked > 0) {
+      // the equations over their cells still unknown, the ones left empty dropped
+      int kept = 0, end = 0;
+      for (int r = 0, from = 0; r < rows; r++) {
+        int to = rowOffsets[r + 1], start = end;
+        for (int k = from; k < to; k++) {
+          if (known[cellOf[rowVariables[k]]] == UNKNOWN) {
+            rowVariables[end++] = rowVariables[k];
+          }
+        }
+        if (end > start) {
+          rhs[kept] = rhs[r];
+          rowOffsets[++kept] = end;
+        }
+        from = to;
+      }
+      rows = kept;
+    }
+
+    // the independent groups of equations, i.e. not sharing any variable
+    int[] parent = new int[variables];
+    for (int v = 0; v < variables; v++) {
+      parent[v] = v;
+    }
+    for (int r = 0; r < rows; r++) {
+      int a = find(parent, rowVariables[rowOffsets[r]]);
+      for (int k = rowOffsets[r] + 1; k < rowOffsets[r + 1]; k++) {
+        int b = find(parent, rowVariables[k]);
+        if (a != b) {
+          parent[Math.max(a, b)] = Math.min(a, b);
+          a = Math.min(a, b);
+        }
+      }
+    }
+    // the rows ordered by group, in cell order within a group
+    int[] groupOffsets = new int[variables + 1];
+    int[] rootOf = new int[rows];
+    for (int r = 0; r < rows; r++) {
+      rootOf[r] = find(parent, rowVariables[rowOffsets[r]]);
+      groupOffsets[rootOf[r] + 1] += 1;
+    }
+    for (int v = 0; v < variables; v++) {
+      groupOffsets[v + 1] += groupOffsets[v];
+    }
+    int[] ordered = new int[rows];
+    int[] fill = Arrays.copyOf(groupOffsets, variables);
+    for (int r = 0; r < rows; r++) {
+      ordered[fill[rootOf[r]]++] = r;
+    }
+
+    int[] columnOf = new int[variables];
+    int[] blockOf = new int[variables];
+    Arrays.fill(blockOf, -1);
+    int block = 0;
+    for (int g = 0; g < variables; g++) {
+      for (int from = groupOffsets[g]; from < groupOffsets[g + 1]; from += MAX_ROWS, block++) {
+        int to = Math.min(from + MAX_ROWS, groupOffsets[g + 1]);
+        // the block's variables, numbered as columns
+        int columns = 0, entries = 0;
+        for (int m = from; m < to; m++) {
+          entries += rowOffsets[ordered[m] + 1] - rowOffsets[ordered[m]];
+        }
+        int[] variableOfColumn = new int[entries];
+        for (int m = from; m < to; m++) {
+          int r = ordered[m];
+          for (int k = rowOffsets[r]; k < rowOffsets[r + 1]; k++) {
+            int v = rowVariables[k];
+            if (blockOf[v] != block) {
+              blockOf[v] = block;
+              variableOfColumn[columns] = v;
+              columnOf[v] = columns++;
+            }
+          }
+        }
+        int words = (columns + 63) >>> 6;
+        long[][] pos = new long[to - from][words], neg = new long[to - from][words];
+        int[] numbers = new int[to - from];
+        for (int m = from; m < to; m++) {
+          int r = ordered[m];
+          for (int k = rowOffsets[r]; k < rowOffsets[r + 1]; k++) {
+            int column = columnOf[rowVariables[k]];
+            pos[m - from][column >>> 6] |= 1L << column;
+          }
+          numbers[m - from] = rhs[r];
+        }
+        reduce(pos, neg, numbers, columns);
+        for (int c = 0; c < columns; c++) {
+          variableOfColumn[c] = cellOf[variableOfColumn[c]];
+        }
+        marked += markForced(pos, neg, numbers, variableOfColumn, known);
+      }
+    }
+    return marked;
+  }
+
+  /**
+   * Marks the cells of the equations whose number is either 0 or their number of cells
+   * still unknown, taking the marked cells out of the equations having them, i.e. their
+   * numbers less the mines marked, until no equation forces its cells on its own.
+   *
+   * @return the number of cells newly marked.
+   */
+  private static int propagate(int[] rowOffsets, int[] rowVariables, int[] rhs, int rows,
+                               int[] cellOf, int variables, byte[] known) {
+    // the equations of each variable
+    int[] variableOffsets = new int[variables + 1];
+    for (int k = 0; k < rowOffsets[rows]; k++) {
+      variableOffsets[rowVariables[k] + 1] += 1;
+    }
+    for (int v = 0; v < variables; v++) {
+      variableOffsets[v + 1] += variableOffsets[v];
+    }
+    int[] variableRows = new int[rowOffsets[rows]];
+    int[] fill = Arrays.copyOf(variableOffsets, variables);
+    for (int r = 0; r < rows; r++) {
+      for (int k = rowOffsets[r]; k < rowOffsets[r + 1]; k++) {
+        variableRows[fill[rowVariables[k]]++] = r;
+      }
+    }
+
+    int[] unknowns = new int[rows];
+    int[] worklist = new int[rows];
+    boolean[] queued = new boolean[rows];
+    int pending = 0;
+    for (int r = 0; r < rows; r++) {
+      unknowns[r] = rowOffsets[r + 1] - rowOffsets[r];
+      if (rhs[r] == 0 || rhs[r] == unknowns[r]) {
+        queued[r] = true;
+        worklist[pending++] = r;
+      }
+    }
+    int marked = 0;
+    while (pending > 0) {
+      int r = worklist[--pending];
+      byte value = (rhs[r] == 0) ? SAFE : MINE;
+      for (int k = rowOffsets[r]; k < rowOffsets[r + 1]; k++) {
+        int v = rowVariables[k], cell = cellOf[v];
+        if (known[cell] != UNKNOWN) {
+          continue; // marked by another equation, already taken out of this one
+        }
+        known[cell] = value;
+        marked += 1;
+        for (int m = variableOffsets[v]; m < variableOffsets[v + 1]; m++) {
+          int other = variableRows[m];
+          unknowns[other] -= 1;
+          if (value == MINE) {
+            rhs[other] -= 1;
+          }
+          check(0 <= rhs[other] && rhs[other] <= unknowns[other], "Inconsistent equation");
+          if (!queued[other] && (rhs[other] == 0 || rhs[other] == unknowns[other])) {
+            queued[other] = true;
+            worklist[pending++] = other;
+          }
+        }
+      }
+    }
+    return marked;
+  }
+
+  private static int find(int[] parent, int i) {
+    while (parent[i] != i) {
+      parent[i] = parent[parent[i]]; // path halving
+      i = parent[i];
+    }
+    return i;
+  }
+
+  /**
+   * Reduces the equations in place, by Gauss-Jordan elimination over the columns.
+   */
+  // visible for testing
+  static void reduce(long[][] pos, long[][] neg, int[] numbers, int columns) {
+    int rows = numbers.length, rank = 0;
+    for (int column = 0; column < columns && rank < rows; column++) {
+      int word = column >>> 6;
+      long bit = 1L << column;
+      int pivot = rank;
+      while (pivot < rows && ((pos[pivot][word] | neg[pivot][word]) & bit) == 0) {
+        pivot++;
+      }
+      if (pivot == rows) {
+        continue; // no equation left over this column
+      }
+      swap(pos, neg, numbers, rank, pivot);
+      if ((neg[rank][word] & bit) != 0) {
+        // a positive pivot
+        long[] swap = pos[rank];
+        pos[rank] = neg[rank];
+        neg[rank] = swap;
+        numbers[rank] = -numbers[rank];
+      }
+      for (int r = 0; r < rows; r++) {
+        if (r == rank) {
+          continue;
+        }
+        if ((pos[r][word] & bit) != 0) {
+          subtract(pos, neg, numbers, r, pos[rank], neg[rank], numbers[rank]);
+        } else if ((neg[r][word] & bit) != 0) {
+          subtract(pos, neg, numbers, r, neg[rank], pos[rank], -numbers[rank]);
+        }
+      }
+      rank++;
+    }
+  }
+
+  private static void swap(long[][] pos, long[][] neg, int[] numbers, int a, int b) {
+    long[] row = pos[a];
+    pos[a] = pos[b];
+    pos[b] = row;
+    row = neg[a];
+    neg[a] = neg[b];
+    neg[b] = row;
+    int number = numbers[a];
+    numbers[a] = numbers[b];
+    numbers[b] = number;
+  }
+
+  // row r minus the specified one, unless a coefficient would be out of -1..1
+  private static void subtract(long[][] pos, long[][] neg, int[] numbers, int r,
+                               long[] minusPos, long[] minusNeg, int minusNumber) {
+    long[] rowPos = pos[r], rowNeg = neg[r];
+    for (int w = 0; w < rowPos.length; w++) {
+      if (((rowPos[w] & minusNeg[w]) | (rowNeg[w] & minusPos[w])) != 0) {
+        return; // 1 - (-1), or -1 - 1
+      }
+    }
+    for (int w = 0; w < rowPos.length; w++) {
+      long p = rowPos[w], n = rowNeg[w];
+      rowPos[w] = (p & ~minusPos[w]) | (minusNeg[w] & ~n);
+      rowNeg[w] = (n & ~minusNeg[w]) | (minusPos[w] & ~p);
+    }
+    numbers[r] -= minusNumber;
+  }
+
+  /**
+   * Marks the cells forced by the reduced equations, the cells of the columns specified.
+   *
+   * @return the number of cells newly marked.
+   */
+  private static int markForced(long[][] pos, long[][] neg, int[] numbers, int[] cellOfColumn,
+                                byte[] known) {
+    int marked = 0;
+    for (int r = 0; r < numbers.length; r++) {
+      int positives = 0, negatives = 0;
+      for (int w = 0; w < pos[r].length; w++) {
+        positives += Long.bitCount(pos[r][w]);
+        negatives += Long.bitCount(neg[r][w]);
+      }
+      check(-negatives <= numbers[r] && numbers[r] <= positives, "Inconsistent equation");
+      if (numbers[r] == positives) {
+        marked += mark(pos[r], cellOfColumn, MINE, known) + mark(neg[r], cellOfColumn, SAFE, known);
+      } else if (numbers[r] == -negatives) {
+        marked += mark(pos[r], cellOfColumn, SAFE, known) + mark(neg[r], cellOfColumn, MINE, known);
+      }
+    }
+    return marked;
+  }
+
+  private static int mark(long[] bits, int[] cellOfColumn, byte value, byte[] known) {
+    int marked = 0;
+    for (int w = 0; w < bits.length; w++) {
+      for (long word = bits[w]; word != 0; word &= word - 1) {
+        int cell = cellOfColumn[(w << 6) + Long.numberOfTrailingZeros(word)];
+        if (known[cell] == UNKNOWN) {
+          known[cell] = value;
+          marked += 1;
+        } else {
+          check(known[cell] == value, "Inconsistent cell: %d", cell);
+        }
+      }
+    }
+    return marked;
+  }
+
+  private static void check(boolean condition, String message, Object ... args) {
+    if (!condition) {
+      throw new IllegalStateException(String.format(message, args));
+    }
+  }
+}
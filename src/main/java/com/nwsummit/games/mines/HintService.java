@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Analyses a {@link MinesBoard} in the background, with a {@link MonteCarloEstimator}, for
+ * the hint and the mine probabilities heatmap.
+ * <p>
+ * The analysis is restarted whenever the board changes, cancelling the previous one. The
+ * estimates are refined by rounds of samples, and the result of each round is handed to
+ * the listener, in one call, on the UI executor (e.g. {@code Platform::runLater}). Results
+ * of a cancelled analysis are dropped, and its estimator's chains are stopped.
+ * <p>
+ * {@link #restart} and {@link #cancel} must be called on the UI thread.
+ */
+class HintService {
+
+  /**
+   * Number of samples per round; the listener gets the estimates after each round.
+   */
+  static final int ROUND_SAMPLES = 2_000;
+
+  /**
+   * Maximum number of samples of an analysis.
+   */
+  static final int MAX_SAMPLES = 20_000;
+
+  /**
+   * The analysis stops once all the probabilities are known within this margin.
+   */
+  static final float TARGET_CONFIDENCE = 0.02f;
+
+  /**
+   * Listener of the analysis results, called on the UI thread.
+   */
+  interface Listener {
+    /**
+     * @param probabilities the mine probability of each cell, by cell index; null if the
+     *        board state is inconsistent, e.g. wrongly flagged.
+     * @param safest the index of the unopen, unflagged, cell least likely to be a mine;
+     *        -1 if none.
+     * @param done whether the estimates are final.
+     */
+    void onResult(float[] probabilities, int safest, boolean done);
+  }
+
+  private final Executor uiExecutor;
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "MinesHint");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private Future<?> task;
+
+  // the estimator of the current analysis, once built on the analysis thread
+  private volatile MonteCarloEstimator estimator;
+
+  /**
+   * Identifies the current analysis; results of previous ones are dropped.
+   */
+  private volatile int generation;
+
+  HintService(Executor uiExecutor) {
+    this.uiExecutor = uiExecutor;
+  }
+
+  /**
+   * Cancels the running analysis, if any, and starts analysing the current state of the
+   * specified board. The board is only read here, on the calling thread, for a snapshot
+   * of its visible state; the estimator is built from it on the analysis thread.
+   */
+  void restart(MinesBoard board, Listener listener) {
+    cancel();
+    int current = generation;
+    MonteCarloEstimator.Snapshot snapshot = MonteCarloEstimator.Snapshot.of(board);
+    task = executor.submit(() -> analyse(snapshot, current, listener));
+  }
+
+  /**
+   * Cancels the running analysis, if any.
+   */
+  void cancel() {
+    generation += 1;
+    MonteCarloEstimator running = estimator;
+    if (running != null) {
+      // the chains run on the common pool, out of reach of the task's interrupt
+      running.cancel();
+      estimator = null;
+    }
+    if (task != null) {
+      task.cancel(true);
+      task = null;
+    }
+  }
+
+  /**
+   * Stops the analysis thread.
+   */
+  void shutdown() {
+    cancel();
+    executor.shutdownNow();
+  }
+
+  private void analyse(MonteCarloEstimator.Snapshot snapshot, int current, Listener listener) {
+    try {
+      MonteCarloEstimator estimator = new MonteCarloEstimator(snapshot,
+                                                              ForkJoinPool.commonPool(),
+                                                              System.nanoTime());
+      // published before checking the generation, so that a cancel sees either
+      this.estimator = estimator;
+      if (generation != current) {
+        estimator.cancel();
+        return;
+      }
+      boolean[] candidates = new boolean[snapshot.size()];
+      for (int i = 0; i < candidates.length; i++) {
+        candidates[i] = snapshot.isUnknown(i);
+      }
+      boolean done = false;
+      while (!done && generation == current && !Thread.currentThread().isInterrupted()) {
+        estimator.sample(ROUND_SAMPLES);
+        float[] probabilities = estimator.probabilities();
+        int safest = safest(probabilities, candidates);
+        done = estimator.samples() >= MAX_SAMPLES
+          || maxOf(estimator.confidence()) <= TARGET_CONFIDENCE;
+        boolean last = done;
+        uiExecutor.execute(() -> {
+            if (generation == current) {
+              listener.onResult(probabilities, safest, last);
+            }
+          });
+      }
+    } catch (CancellationException e) {
+      // cancelled, nothing to report
+    } catch (IllegalStateException e) {
+      // no consistent layout
+      uiExecutor.execute(() -> {
+          if (generation == current) {
+            listener.onResult(null, -1, true);
+          }
+        });
+    }
+  }
+
+  /**
+   * Returns the index of the candidate cell of lowest probability, -1 if none.
+   */
+  static int safest(float[] probabilities, boolean[] candidates) {
+    int safest = -1;
+    for (int i = 0; i < probabilities.length; i++) {
+      if (candidates[i] && (safest < 0 || probabilities[i] < probabilities[safest])) {
+        safest = i;
+      }
+    }
+    return safest;
+  }
+
+  private static float maxOf(float[] values) {
+    float max = 0;
+    for (float value: values) {
+      max = Math.max(max, value);
+    }
+    return max;
+  }
+}
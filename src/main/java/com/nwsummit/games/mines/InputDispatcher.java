@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+
+/**
+ * Dispatches the mouse and keyboard input of a {@link MinesPane} as moves. A single pair
+ * of handlers is set on the pane, rather than one per square: the square clicked is found
+ * from the pointer coordinates.
+ * <p>
+ * Keys: arrows or h/j/k/l move the keyboard cursor, space or enter opens the cell under it
+ * and f flags it.
+ * <p>
+ * The moves input in a row, before the FX thread gets to apply them, are coalesced into one
+ * {@link MoveBatch}. The time from the first input of a batch to the frame showing its
+ * effect is recorded in the {@link #latency} statistics.
+ */
+class InputDispatcher {
+
+  /**
+   * Handler of the moves, called on the FX thread.
+   */
+  interface MovesHandler {
+    void apply(MoveBatch moves);
+  }
+
+  private final MinesPane pane;
+  private final MovesHandler handler;
+  private final LatencyStats latency = new LatencyStats(1024);
+
+  // the moves not yet applied, and the time of their first input
+  private MoveBatch pending;
+  private long pendingSince;
+
+  // the time of the first input of the moves applied, but not yet shown; 0 if none
+  private long awaitingFrame;
+
+  private final Runnable onPulse = this::framed;
+
+  private int cursorRow = -1, cursorCol;
+
+  InputDispatcher(MinesPane pane, MovesHandler handler) {
+    this.pane = pane;
+    this.handler = handler;
+    pane.setFocusTraversable(true);
+    pane.setOnMouseClicked(this::mouseClicked);
+    pane.setOnKeyPressed(this::keyPressed);
+    pane.sceneProperty().addListener((property, oldScene, newScene) -> listenPulses(oldScene,
+                                                                                 newScene));
+    listenPulses(null, pane.getScene());
+  }
+
+  private void listenPulses(Scene oldScene, Scene newScene) {
+    if (oldScene != null) {
+      oldScene.removePostLayoutPulseListener(onPulse);
+    }
+    if (newScene != null) {
+      newScene.addPostLayoutPulseListener(onPulse);
+    }
+  }
+
+  /**
+   * The input to frame latencies.
+   */
+  LatencyStats latency() {
+    return latency;
+  }
+
+  /**
+   * Hides the keyboard cursor and drops the moves in flight, e.g. for a new game.
+   */
+  void reset() {
+    cursorRow = -1;
+    pending = null;
+    awaitingFrame = 0; // not to measure the previous game's moves against the new one
+  }
+
+  private void mouseClicked(MouseEvent event) {
+    pane.requestFocus();
+    MinesPane.Square square = pane.squareAt(event.getX(), event.getY());
+    if (square == null) {
+      return;
+    }
+    if (event.getButton() == MouseButton.PRIMARY) {
+      queue().open(square.row(), square.col());
+    } else if (event.getButton() == MouseButton.SECONDARY) {
+      queue().flag(square.row(), square.col());
+    }
+  }
+
+  private void keyPressed(KeyEvent event) {
+    if (pane.rows() == 0) {
+      return; // no board yet
+    }
+    int row = cursorRow, col = cursorCol;
+    switch (event.getCode()) {
+      case LEFT: case H: col -= 1; break;
+      case RIGHT: case L: col += 1; break;
+      case UP: case K: row -= 1; break;
+      case DOWN: case J: row += 1; break;
+      case SPACE: case ENTER: case F: break;
+      default: return;
+    }
+    event.consume();
+    if (cursorRow < 0) {
+      // the first key shows the cursor, in the middle of the board
+      moveCursor(pane.rows() / 2, pane.columns() / 2);
+    } else if (event.getCode() == KeyCode.F) {
+      queue().flag(cursorRow, cursorCol);
+    } else if (event.getCode() == KeyCode.SPACE || event.getCode() == KeyCode.ENTER) {
+      queue().open(cursorRow, cursorCol);
+    } else {
+      moveCursor(row, col);
+    }
+  }
+
+  private void moveCursor(int row, int col) {
+    cursorRow = Math.max(0, Math.min(row, pane.rows() - 1));
+    cursorCol = Math.max(0, Math.min(col, pane.columns() - 1));
+    pane.showCursor(cursorRow, cursorCol);
+  }
+
+  /**
+   * Returns the batch to add moves to, scheduling its dispatch if new.
+   */
+  private MoveBatch queue() {
+    if (pending == null) {
+      pending = new MoveBatch(4);
+      pendingSince = System.nanoTime();
+      Platform.runLater(this::dispatch);
+    }
+    return pending;
+  }
+
+  private void dispatch() {
+    MoveBatch moves = pending;
+    if (moves == null) {
+      return; // reset in the meantime
+    }
+    pending = null;
+    if (awaitingFrame == 0) {
+      awaitingFrame = pendingSince;
+    }
+    handler.apply(moves);
+    Platform.requestNextPulse();
+  }
+
+  // the scene is laid out for the next frame
+  private void framed() {
+    if (awaitingFrame != 0) {
+      latency.record(System.nanoTime() - awaitingFrame);
+      awaitingFrame = 0;
+    }
+  }
+}
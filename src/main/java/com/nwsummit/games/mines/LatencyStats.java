@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of latencies, e.g. from an input event to the frame showing its effect. The
+ * count, mean and maximum are of all the latencies recorded; the percentiles are of the
+ * latest ones, kept in a fixed size window.
+ */
+final class LatencyStats {
+
+  private final long[] window;
+  private long count;
+  private long total;
+  private long max;
+
+  /**
+   * Creates statistics keeping the specified number of latest latencies for percentiles.
+   */
+  LatencyStats(int window) {
+    if (window <= 0) {
+      throw new IllegalArgumentException("Invalid window: " + window);
+    }
+    this.window = new long[window];
+  }
+
+  /**
+   * Records a latency, in nanoseconds.
+   */
+  void record(long nanos) {
+    window[(int) (count % window.length)] = nanos;
+    count += 1;
+    total += nanos;
+    max = Math.max(max, nanos);
+  }
+
+  long count() {
+    return count;
+  }
+
+  long max() {
+    return max;
+  }
+
+  double mean() {
+    return (count == 0) ? 0 : (double) total / count;
+  }
+
+  /**
+   * The specified percentile (0 to 100) of the latest latencies; 0 if none.
+   */
+  long percentile(double percentile) {
+    int n = (int) Math.min(count, window.length);
+    if (n == 0) {
+      return 0;
+    }
+    long[] sorted = Arrays.copyOf(window, n);
+    Arrays.sort(sorted);
+    int rank = (int) Math.ceil(percentile / 100 * n) - 1;
+    return sorted[Math.max(0, Math.min(rank, n - 1))];
+  }
+
+  @Override
+  public String toString() {
+    return String.format("n=%d mean=%.1fms p50=%.1fms p99=%.1fms max=%.1fms", count,
+                         mean() / 1e6, percentile(50) / 1e6, percentile(99) / 1e6, max / 1e6);
+  }
+}
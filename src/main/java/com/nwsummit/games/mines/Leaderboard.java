@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local leaderboard of the games won. Results are appended to a log file of fixed size
+ * records, and the best K results of each {@link Level} are indexed in memory. The index is
+ * rebuilt from the log when the leaderboard is opened, by scanning the memory-mapped file.
+ * <p>
+ * The log starts with an 8 bytes header, the {@link #MAGIC} number and the
+ * {@link #VERSION} of the record layout, checked when the log is opened.
+ * <p>
+ * Record layout (40 bytes, big endian): rows, columns, mines, time in milliseconds, and
+ * row and column of the cell first opened as ints, then seed and date (epoch milliseconds)
+ * as longs. The seed and first cell reproduce the board: the mines are placed around the
+ * first cell. A trailing partial record, e.g. from a crash while appending, is truncated
+ * when the log is opened.
+ * <p>
+ * Results can be added in the background, see {@link #addAsync}; {@link #close} waits
+ * for the pending ones.
+ */
+class Leaderboard implements Closeable {
+
+  static final int RECORD_SIZE = 40;
+  static final int HEADER_SIZE = 8;
+
+  /**
+   * The first int of a log: "MNLB".
+   */
+  static final int MAGIC = 0x4D4E_4C42;
+
+  /**
+   * The version of the record layout, the second int of a log.
+   */
+  static final int VERSION = 1;
+
+  /**
+   * How long {@link #close} waits for the pending results to be added, in milliseconds.
+   */
+  private static final long CLOSE_TIMEOUT_MS = 5000;
+
+  /**
+   * The default number of results kept per level.
+   */
+  static final int TOP_K = 100;
+
+  private final FileChannel channel;
+  private final int k;
+  private final Map<Level, TopK> index = new HashMap<>();
+  private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+  private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "MinesLeaderboard");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private long entries;
+
+  // the level of the latest indexed result, and its index
+  private Level lastLevel;
+  private TopK lastTop;
+
+  private Leaderboard(FileChannel channel, int k) {
+    this.channel = channel;
+    this.k = k;
+  }
+
+  /**
+   * Opens the leaderboard logged in the specified file, created if it doesn't exist,
+   * indexing the best {@link #TOP_K} results of each level.
+   */
+  static Leaderboard open(Path path) throws IOException {
+    return open(path, TOP_K);
+  }
+
+  /**
+   * Opens the leaderboard logged in the specified file, created if it doesn't exist,
+   * indexing the best k results of each level.
+   */
+  static Leaderboard open(Path path, int k) throws IOException {
+    if (k <= 0) {
+      throw new IllegalArgumentException("Invalid k: " + k);
+    }
+    if (path.getParent() != null) {
+      Files.createDirectories(path.getParent());
+    }
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                                           StandardOpenOption.READ, StandardOpenOption.WRITE);
+    Leaderboard leaderboard = new Leaderboard(channel, k);
+    try {
+      leaderboard.load();
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+    return leaderboard;
+  }
+
+  /**
+   * Checks the header of the log, written if the log is new, then scans the log and builds
+   * the index.
+   */
+  private void load() throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    long size = channel.size();
+    if (size < HEADER_SIZE) {
+      // new, or crashed while writing the header
+      channel.truncate(0);
+      header.putInt(MAGIC).putInt(VERSION).flip();
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+      size = HEADER_SIZE;
+    } else {
+      while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+        // until the header is read
+      }
+      header.flip();
+      int magic = header.getInt(), version = header.getInt();
+      if (magic != MAGIC || version != VERSION) {
+        throw new IOException(String.format("Not a leaderboard log of version %d: %08x, %d",
+                                            VERSION, magic, version));
+      }
+    }
+    long whole = size - (size - HEADER_SIZE) % RECORD_SIZE;
+    if (whole < size) {
+      channel.truncate(whole);
+    }
+
+    // maps the log by chunks of whole records, a single mapping is limited to 2GB
+    long chunk = (Integer.MAX_VALUE / RECORD_SIZE) * (long) RECORD_SIZE;
+    for (long position = HEADER_SIZE; position < whole; position += chunk) {
+      MappedByteBuffer buffer =
+        channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(chunk, whole - position));
+      while (buffer.remaining() >= RECORD_SIZE) {
+        int rows = buffer.getInt();
+        int columns = buffer.getInt();
+        int mines = buffer.getInt();
+        int timeMs = buffer.getInt();
+        int firstRow = buffer.getInt();
+        int firstCol = buffer.getInt();
+        long seed = buffer.getLong();
+        long date = buffer.getLong();
+        index(rows, columns, mines, timeMs, firstRow * columns + firstCol, seed, date);
+      }
+    }
+    channel.position(whole);
+  }
+
+  private void index(int rows, int columns, int mines, int timeMs, int first, long seed,
+                     long date) {
+    entries += 1;
+    // consecutive results are mostly of the same level, no need to look it up again
+    if (lastLevel == null || lastLevel.rows() != rows || lastLevel.columns() != columns
+        || lastLevel.mines() != mines) {
+      lastLevel = new Level(rows, columns, mines);
+      lastTop = index.computeIfAbsent(lastLevel, key -> new TopK(k));
+    }
+    lastTop.offer(timeMs, first, seed, date);
+  }
+
+  /**
+   * Appends a game result to the log and the index.
+   *
+   * @param seed the seed of the mines placement.
+   * @param firstRow the row of the cell first opened, around which the mines were placed.
+   * @param firstCol the column of the cell first opened.
+   */
+  synchronized void add(Level level, long seed, int firstRow, int firstCol, int timeMs,
+                        Instant date) throws IOException {
+    record.clear();
+    record.putInt(level.rows()).putInt(level.columns()).putInt(level.mines()).putInt(timeMs);
+    record.putInt(firstRow).putInt(firstCol);
+    record.putLong(seed).putLong(date.toEpochMilli());
+    record.flip();
+    while (record.hasRemaining()) {
+      channel.write(record);
+    }
+    index(level.rows(), level.columns(), level.mines(), timeMs,
+          firstRow * level.columns() + firstCol, seed, date.toEpochMilli());
+  }
+
+  /**
+   * Appends a game result in the background, in the order of the calls.
+   *
+   * @return the completion of the add; failed if the leaderboard was closed.
+   * @see #add
+   */
+  CompletableFuture<Void> addAsync(Level level, long seed, int firstRow, int firstCol,
+                                   int timeMs, Instant date) {
+    CompletableFuture<Void> added = new CompletableFuture<>();
+    try {
+      writer.execute(() -> {
+          try {
+            add(level, seed, firstRow, firstCol, timeMs, date);
+            added.complete(null);
+          } catch (IOException | RuntimeException e) {
+            added.completeExceptionally(e);
+          }
+        });
+    } catch (RejectedExecutionException e) {
+      added.completeExceptionally(new IllegalStateException("Leaderboard closed"));
+    }
+    return added;
+  }
+
+  /**
+   * Returns the best results of the specified level, fastest first; at most k of them.
+   */
+  synchronized List<Entry> top(Level level, int max) {
+    TopK top = index.get(level);
+    if (top == null) {
+      return List.of();
+    }
+    int n = Math.min(max, top.size);
+    List<Entry> list = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      int first = top.firsts[i];
+      list.add(new Entry(level, top.seeds[i], first / level.columns(), first % level.columns(),
+                         top.times[i], Instant.ofEpochMilli(top.dates[i])));
+    }
+    return list;
+  }
+
+  /**
+   * The number of results logged.
+   */
+  synchronized long size() {
+    return entries;
+  }
+
+  /**
+   * Closes the log, once the results added in the background are written; waits for them
+   * up to {@link #CLOSE_TIMEOUT_MS}.
+   */
+  @Override
+  public void close() throws IOException {
+    writer.shutdown();
+    try {
+      if (!writer.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        System.err.println("Closing the leaderboard with results still pending");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this) {
+      channel.close();
+    }
+  }
+
+  /**
+   * A game result.
+   */
+  static final class Entry {
+    private final Level level;
+    private final long seed;
+    private final int firstRow, firstCol;
+    private final int timeMs;
+    private final Instant date;
+
+    Entry(Level level, long seed, int firstRow, int firstCol, int timeMs, Instant date) {
+      this.level = level;
+      this.seed = seed;
+      this.firstRow = firstRow;
+      this.firstCol = firstCol;
+      this.timeMs = timeMs;
+      this.date = date;
+    }
+
+    Level level() {
+      return level;
+    }
+
+    long seed() {
+      return seed;
+    }
+
+    /**
+     * The row of the cell first opened; with the seed, it reproduces the board.
+     */
+    int firstRow() {
+      return firstRow;
+    }
+
+    /**
+     * The column of the cell first opened.
+     */
+    int firstCol() {
+      return firstCol;
+    }
+
+    int timeMs() {
+      return timeMs;
+    }
+
+    Instant date() {
+      return date;
+    }
+
+    @Override
+    public String toString() {
+      return "Entry[" + level + "," + timeMs + "ms," + date + "]";
+    }
+  }
+
+  /**
+   * The best k results of a level, sorted by time in primitive arrays. Results of equal
+   * times are kept in the order they were logged.
+   */
+  private static final class TopK {
+    private final int[] times;
+    private final int[] firsts;
+    private final long[] seeds;
+    private final long[] dates;
+    private int size;
+
+    TopK(int k) {
+      times = new int[k];
+      firsts = new int[k];
+      seeds = new long[k];
+      dates = new long[k];
+    }
+
+    void offer(int timeMs, int first, long seed, long date) {
+      if (size == times.length && timeMs >= times[size - 1]) {
+        return; // not in the top k
+      }
+      // insertion point, after the results of equal time
+      int low = 0, high = size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (times[mid] <= timeMs) low = mid + 1; else high = mid;
+      }
+      int moved = Math.min(size, times.length - 1) - low;
+      System.arraycopy(times, low, times, low + 1, moved);
+      System.arraycopy(firsts, low, firsts, low + 1, moved);
+      System.arraycopy(seeds, low, seeds, low + 1, moved);
+      System.arraycopy(dates, low, dates, low + 1, moved);
+      times[low] = timeMs;
+      firsts[low] = first;
+      seeds[low] = seed;
+      dates[low] = date;
+      size = Math.min(size + 1, times.length);
+    }
+  }
+}
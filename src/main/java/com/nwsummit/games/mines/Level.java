@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A game level, i.e. the size of the mines board and its number of mines. The string form
+ * of a level is "rows x columns : mines", e.g. 16x30:99.
+ */
+final class Level {
+
+  /**
+   * Regex for parsing the game level (rows x columss : mines).
+   */
+  private static final Pattern REGEX_LEVEL = Pattern.compile("(\\d+)x(\\d+):(\\d+)");
+
+  static final Level BEGINNER = new Level(8, 8, 10);
+  static final Level INTERMEDIATE = new Level(16, 16, 40);
+  static final Level EXPERT = new Level(16, 30, 99);
+
+  /**
+   * The predefined levels, i.e. the ones offered by the UI.
+   */
+  static final List<Level> PREDEFINED = List.of(BEGINNER, INTERMEDIATE, EXPERT);
+
+  private final int rows, columns, mines;
+
+  Level(int rows, int columns, int mines) {
+    this.rows = rows;
+    this.columns = columns;
+    this.mines = mines;
+  }
+
+  /**
+   * Parses the specified level string, e.g. 16x16:40.
+   *
+   * @throws IllegalArgumentException if the level string is not valid.
+   */
+  static Level parse(String level) {
+    Matcher matcher = REGEX_LEVEL.matcher(level);
+    if (!matcher.matches())
+      throw new IllegalArgumentException("Invalid game level: " + level);
+
+    return new Level(Integer.parseInt(matcher.group(1)),
+                     Integer.parseInt(matcher.group(2)),
+                     Integer.parseInt(matcher.group(3)));
+  }
+
+  int rows() {
+    return rows;
+  }
+
+  int columns() {
+    return columns;
+  }
+
+  int mines() {
+    return mines;
+  }
+
+  /**
+   * Creates a new mines board for this level.
+   */
+  MinesBoard newBoard() {
+    return new MinesBoard(rows, columns, mines);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(rows, columns, mines);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (obj == null || getClass() != obj.getClass()) return false;
+
+    Level that = (Level) obj;
+    return this.rows == that.rows
+      && this.columns == that.columns
+      && this.mines == that.mines;
+  }
+
+  @Override
+  public String toString() {
+    return rows + "x" + columns + ":" + mines;
+  }
+}
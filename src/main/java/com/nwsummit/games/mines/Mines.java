@@ -11,6 +11,7 @@ package com.nwsummit.games.mines;
 import java.io.IOException;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.BorderPane;
@@ -18,25 +19,64 @@ import javafx.stage.Stage;
 
 /**
  * A minesweeper game.
+ * <p>
+ * Options:
+ * <ul>
+ * <li>--ui=code: builds the UI in code rather than from FXML, and shows the window before
+ * the first board, for a faster startup</li>
+ * <li>--startup-metrics: prints the time to first frame and to interactive</li>
+ * <li>--input-metrics: prints the latencies from input to frame on exit</li>
+ * </ul>
  */
 public class Mines extends Application {
 
+  private GameController controller;
+  private boolean printInputMetrics;
+
   @Override
   public void start(Stage stage) throws IOException {
-    GameController controller = new GameController(stage);
-
-    FXMLLoader loader = new FXMLLoader();
-    loader.setLocation(getClass().getResource("mines.fxml"));
-    loader.setController(controller);
+    StartupMetrics metrics = new StartupMetrics();
+    metrics.mark("start");
+    boolean fastPath = "code".equals(getParameters().getNamed().get("ui"));
+    boolean printMetrics = getParameters().getUnnamed().contains("--startup-metrics");
+    printInputMetrics = getParameters().getUnnamed().contains("--input-metrics");
 
-    BorderPane pane = loader.<BorderPane>load();
+    controller = new GameController(stage);
+    BorderPane pane;
+    if (fastPath) {
+      pane = MinesLayout.build(controller);
+    } else {
+      FXMLLoader loader = new FXMLLoader();
+      loader.setLocation(getClass().getResource("mines.fxml"));
+      loader.setController(controller);
+      pane = loader.<BorderPane>load();
+    }
 
     Scene scene = new Scene(pane);
     stage.setScene(scene);
     stage.setTitle("Mines");
+
+    metrics.markOnNextPulse(scene, "first frame", () -> { });
+    controller.setOnGameStarted(() -> metrics.markOnNextPulse(scene, "interactive", () -> {
+        if (printMetrics) {
+          metrics.report(System.out);
+        }
+      }));
     stage.show();
 
-    controller.newGame();
+    if (fastPath) {
+      // the first board doesn't hold up the first frame
+      Platform.runLater(controller::newGame);
+    } else {
+      controller.newGame();
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (printInputMetrics && controller != null) {
+      System.out.println("input latency: " + controller.inputLatency());
+    }
   }
 
   public static void main(String... args) {
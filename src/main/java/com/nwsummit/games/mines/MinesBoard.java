@@ -9,25 +9,45 @@
 package com.nwsummit.games.mines;
 
 import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Class representing a mines board. A mines board is characterised by
  * <ul>
  * <li>the number of rows and columns, or size of the board.</li>
  * <li>the number of mines.</li>
+ * <li>its {@link Topology}, i.e. which cells are adjascent to each other; the classic grid
+ * by default.</li>
  * </ul>
+ * The mines are placed lazily, on the first {@link #open}, so that the first opened cell and
+ * its neighbours are guaranteed to be free of mines.
+ * <p>
  * Each square on the board is represented by a {@link Cell} and the board can be iterated
- * via an {@link #iterator}.
+ * via an {@link #iterator}, or streamed via {@link #stream}. Cells can also be addressed by
+ * their index, i.e. {@code row * columns + col}, see {@link #indexStream}.
  * @see Cell
  */
 class MinesBoard implements Iterable<MinesBoard.Cell> {
@@ -37,13 +57,56 @@ class MinesBoard implements Iterable<MinesBoard.Cell> {
    */
   static final int MINE = -1;
 
+  /**
+   * Number of cells from which board-wide scans are run in parallel.
+   */
+  static final int PARALLEL_THRESHOLD = 1 << 16;
+
+  /**
+   * Side, in cells, of the tiles of the parallel cascades opening.
+   */
+  static final int TILE_SIZE = 64;
+
   // number of rows and columns
   private final int rows, columns;
 
-  private final Cell[][] board;
+  private final Cell[] cells;
+
+  /**
+   * The states of the cells packed for the board-wide scans, kept in sync with the cells.
+   */
+  private final CellStates states;
+
+  /**
+   * The precomputed neighbours of the cells, per the board's topology.
+   */
+  private final NeighbourTable neighbours;
 
   private Set<Cell> mines;
 
+  /**
+   * The indexes of the cells wrongly flagged as mine, in no order; kept up to date by
+   * {@link #flag}, each such cell knowing where its index is.
+   */
+  private int[] wrongFlags = new int[16];
+  private int wrongFlagCount;
+
+  /**
+   * The number of mines yet to be placed, on the first {@link #open}.
+   */
+  private int pendingMines;
+
+  /**
+   * Seed of the random placement of the mines.
+   */
+  private long seed;
+
+  /**
+   * Index of the safe cell the mines were placed around, i.e. the cell first opened; -1
+   * until they are placed randomly.
+   */
+  private int firstOpened = -1;
+
   /**
    * The number of remaining unopen/unresolved cells.
    */
@@ -54,52 +117,125 @@ class MinesBoard implements Iterable<MinesBoard.Cell> {
    */
   private boolean kaboom;
 
+  /**
+   * Where the change events are published; none by default.
+   */
+  private BoardEventRing events;
+
+  /**
+   * The zero regions, labeled once the mines are placed if opened by region, on demand
+   * otherwise.
+   */
+  private ZeroRegions zeroRegions;
+
+  /**
+   * Where the cascades are opened in parallel; none by default, i.e. sequentially.
+   */
+  private ForkJoinPool cascadePool;
+
   // for testing
   MinesBoard(int rows, int columns) {
+    this(rows, columns, Topology.CLASSIC);
+  }
+
+  // for testing
+  MinesBoard(int rows, int columns, Topology topology) {
     checkArgument(rows > 2, "Rows must be greater than 2");
     checkArgument(columns > 2, "Columns must be greater than 2");
 
     this.rows = rows;
     this.columns = columns;
+    this.neighbours = NeighbourTable.of(topology, rows, columns); // rejects too large boards
     this.mines = new HashSet<>();
-    this.board = new Cell[rows][columns];
+    this.cells = new Cell[rows * columns];
+    this.states = new CellStates(rows * columns);
 
     for (int r = 0; r < rows; r++) {
       for (int c = 0; c < columns; c++) {
-        board[r][c] = new Cell(r, c);
+        cells[r * columns + c] = new Cell(r, c);
       }
     }
     unopen = rows * columns;
   }
 
   /**
-   * Construct a mines board of the specified size, with the specifed number of mines.
+   * Construct a mines board of the specified size, with the specifed number of mines. The
+   * mines are not placed until the first cell is opened.
    *
    * @param rows number of rows.
    * @param columns number of columns.
    * @param mines number of mines.
    */
   public MinesBoard(int rows, int columns, int mines) {
-    this(rows, columns);
+    this(rows, columns, mines, Topology.CLASSIC);
+  }
+
+  /**
+   * Construct a mines board of the specified size and topology, with the specifed number
+   * of mines.
+   *
+   * @param rows number of rows.
+   * @param columns number of columns.
+   * @param mines number of mines.
+   * @param topology which cells are adjascent to each other.
+   */
+  public MinesBoard(int rows, int columns, int mines, Topology topology) {
+    this(rows, columns, mines, topology, System.nanoTime());
+  }
+
+  /**
+   * Construct a mines board of the specified size and topology, with the specifed number
+   * of mines placed randomly from the specified seed. Boards of the same seed, opened
+   * first at the same cell, have the same mines layout.
+   */
+  MinesBoard(int rows, int columns, int mines, Topology topology, long seed) {
+    this(rows, columns, topology);
 
     int maxCells = rows * columns;
     checkArgument(mines > 0 && mines < maxCells,
                   "Invalid 0 < mines=%d < (rows x colums)=%d", mines, maxCells);
-    placeMines(mines);
+    pendingMines = mines;
+    this.seed = seed;
   }
 
   /**
-   * Randomly places the specified number of mines on the board.
-   * @param nMines the number of mines to be placed.
+   * Randomly places the pending mines on the board, keeping the specified safe cell free of
+   * mines. The neighbours of the safe cell are kept free of mines as well, unless there
+   * are not enough remaining cells for the mines.
    */
-  private void placeMines(int nMines) {
-    Random random = new Random(System.nanoTime());
+  // visible for testing
+  void placeMines(int safeRow, int safeCol) {
+    validate(safeRow, safeCol);
+    if (pendingMines == 0) {
+      throw new IllegalStateException("Mines already placed");
+    }
+    int nMines = pendingMines;
+    pendingMines = 0;
+
+    // the safe area, i.e. the safe cell and its neighbours if there is room enough
+    int safe = safeRow * columns + safeCol;
+    firstOpened = safe;
+    int from = neighbours.offsets[safe];
+    int to = (rows * columns - 1 - neighbours.degree(safe) >= nMines)
+      ? neighbours.offsets[safe + 1] : from;
+
+    Random random = new Random(seed);
     do {
-      int r = random.nextInt(rows);
-      int c = random.nextInt(columns);
-      if (!board[r][c].isMine())
-        placeMine(r, c);
+      int index = random.nextInt(rows * columns);
+      if (index == safe || isSafe(index, from, to) || cells[index].isMine())
+        continue;
+      placeMine(index / columns, index % columns);
     } while (mines.size() < nMines);
+    zeroRegions = opensRegions() ? ZeroRegions.label(this) : null;
+  }
+
+  // whether the cell is one of the neighbours [from, to) of the safe cell
+  private boolean isSafe(int index, int from, int to) {
+    for (int k = from; k < to; k++) {
+      if (neighbours.neighbours[k] == index)
+        return true;
+    }
+    return false;
   }
 
   /**
@@ -108,35 +244,156 @@ class MinesBoard implements Iterable<MinesBoard.Cell> {
    */
   // visible for testing
   void placeMine(int row, int col) {
-    Cell mine = board[row][col];
+    int index = row * columns + col;
+    Cell mine = cells[index];
     mine.value = MINE;
     mines.add(mine);
+    states.set(index, CellStates.MINE);
+    removeWrongFlag(mine); // in case flagged before the mines placement
+    zeroRegions = null; // to be labeled again
 
     // update the mines count of the cells adjascent to the mine
-    for (Cell adjCell: neighboursOf(mine, Predicate.not(Cell::isMine))) {
-      adjCell.value += 1;
+    for (int k = neighbours.offsets[index]; k < neighbours.offsets[index + 1]; k++) {
+      Cell adjCell = cells[neighbours.neighbours[k]];
+      if (!adjCell.isMine()) {
+        adjCell.value += 1;
+      }
     }
     unopen--;
   }
 
+  /**
+   * The number of rows of this board.
+   */
+  int rows() {
+    return rows;
+  }
+
+  /**
+   * The number of columns of this board.
+   */
+  int columns() {
+    return columns;
+  }
+
+  /**
+   * The number of mines of this board, including the ones not yet placed.
+   */
+  int mines() {
+    return mines.size() + pendingMines;
+  }
+
+  /**
+   * The seed of the random placement of the mines.
+   */
+  long seed() {
+    return seed;
+  }
+
+  /**
+   * The index of the cell first opened, around which the mines were randomly placed; with
+   * the {@link #seed}, it reproduces the board. -1 if the mines weren't placed randomly
+   * (yet).
+   */
+  int firstOpened() {
+    return firstOpened;
+  }
+
+  /**
+   * The topology of this board.
+   */
+  Topology topology() {
+    return neighbours.topology;
+  }
+
+  /**
+   * Publishes the changes of this board, from now on, to the specified ring of events:
+   * cells opened, flagged or unflagged, mine exploded and game won.
+   */
+  void publishTo(BoardEventRing events) {
+    this.events = events;
+  }
+
+  /**
+   * The zero regions of this board, i.e. the cells opened together when opening a cell
+   * with no adjascent mines.
+   */
+  ZeroRegions zeroRegions() {
+    if (zeroRegions == null) {
+      zeroRegions = ZeroRegions.label(this);
+    }
+    return zeroRegions;
+  }
+
+  /**
+   * Opens the cascades, i.e. the cells opened around a cell with no adjascent mines, in
+   * parallel on the specified pool, if the board has at least {@link #PARALLEL_THRESHOLD}
+   * cells; null to open them sequentially. Either way the same cells are opened, though
+   * not in the same order.
+   */
+  void openCascadesOn(ForkJoinPool pool) {
+    cascadePool = pool;
+  }
+
+  /**
+   * The precomputed neighbours of the cells of this board.
+   */
+  NeighbourTable neighbourTable() {
+    return neighbours;
+  }
+
   // visible for testing
   public Cell get(int row, int col) {
     validate(row, col);
-    return board[row][col];
+    return cells[row * columns + col];
+  }
+
+  /**
+   * Returns the cell at the specified index, i.e. {@code row * columns + col}.
+   */
+  Cell get(int index) {
+    checkArgument(0 <= index && index < rows * columns, "Index out of bound: %d", index);
+    return cells[index];
   }
 
   /**
-   * Flags the specified cell/square of the board as having a mine.
+   * Flags the specified cell/square of the board as having a mine. If the cell was flagged,
+   * this toggles off the flag. The flagged neighbours count of the adjascent cells, and the
+   * wrongly flagged cells are updated accordingly.
    */
   public State flag(int row, int col) {
     validate(row, col);
-    return board[row][col].flag();
+    int index = row * columns + col;
+    Cell cell = cells[index];
+    State state = cell.flag();
+    if (state == State.OPEN) {
+      return state;
+    }
+
+    int delta = (state == State.FLAGGED) ? 1 : -1;
+    for (int k = neighbours.offsets[index]; k < neighbours.offsets[index + 1]; k++) {
+      cells[neighbours.neighbours[k]].flaggedNeighbours += delta;
+    }
+
+    if (!cell.isMine()) {
+      if (state == State.FLAGGED) {
+        addWrongFlag(cell);
+      } else {
+        removeWrongFlag(cell);
+      }
+    }
+    if (events != null) {
+      events.publish(state == State.FLAGGED ? BoardEventRing.FLAGGED : BoardEventRing.UNFLAGGED,
+                     index, 0);
+    }
+    return state;
   }
 
   /**
    * Opens the specified cell/square of the mines board. If a mine is opened in the
    * process, usually be cause the specified cell to open is a mine or some squares
-   * were wrongly flagged as mine, {@link #kaboom} will be set to true.
+   * were wrongly flagged as mine, {@link #kaboom} will be set to true. The first cell
+   * opened triggers the placement of the mines.
    *
    * @see #getWronglyFlaggedCells
    * @return the list of mines opened; empty if the cell is flagged or already open.
@@ -144,26 +401,53 @@ class MinesBoard implements Iterable<MinesBoard.Cell> {
   public List<Cell> open(int row, int col) {
     validate(row, col);
 
-    Cell cell = board[row][col];
+    Cell cell = cells[row * columns + col];
     // nothing to open if flagged or already opened but not having full count flags
     if (cell.state == State.FLAGGED || (cell.state == State.OPEN && !isFullyFlagged(cell))) {
       return Collections.emptyList();
     }
+    LinkedList<Cell> openedCells = new LinkedList<>();
+    open(cell, openedCells::add);
+    return openedCells;
+  }
 
-    // predicate to selct UNOPEN and not FLAGGED cells
-    Predicate<Cell> unopenAndNotFlagged = Predicate.not(Cell::isFlagged).and(Cell::isUnopen);
+  /**
+   * Opens the specified cell, which is either unopen or open and fully flagged, handing
+   * each opened cell to the specified consumer.
+   */
+  private void open(Cell cell, Consumer<Cell> openedCells) {
+    if (pendingMines > 0) {
+      placeMines(cell.row(), cell.col());
+    }
 
-    LinkedList<Cell> openedCells = new LinkedList<>();
+    int unopenBefore = unopen;
+    boolean cascade = cell.state == State.UNOPEN && cell.value() == 0;
+    if (cascade && cascadePool != null && cells.length >= PARALLEL_THRESHOLD) {
+      openCascade(cell, openedCells);
+    } else if (cascade && opensRegions() && openRegion(cell, openedCells)) {
+      // opened at once
+    } else {
+      openSequentially(cell, openedCells);
+    }
+    // won by this move only, not again when reopening a cell of a won board
+    if (events != null && unopenBefore > 0 && unopen == 0 && !kaboom) {
+      events.publish(BoardEventRing.WON, -1, 0);
+    }
+  }
 
+  /**
+   * Opens the specified cell, and the cascade around it if any, breadth first.
+   */
+  private void openSequentially(Cell cell, Consumer<Cell> openedCells) {
     // cells opening is like breadth frist search in a graph, with cells being vertices,
     // hence a queue is used to store the (adjascent) cells to work on at next iteration
-    LinkedList<Cell> queue = new LinkedList<>();
+    ArrayDeque<Cell> queue = new ArrayDeque<>();
     if (cell.state == State.UNOPEN) {
       queue.add(cell);
     } else {
       // already OPENED then it must be fully flagged, => start by opening its UNOPENED
       // neighours because the algo doesn't open neighbours of a numbered cell
-      queue.addAll(neighboursOf(cell, unopenAndNotFlagged));
+      queueUnopenNeighbours(cell, queue);
     }
 
     // 1. if the cell to open is numbered (value 1..8), then cells opening stops there
@@ -175,35 +459,231 @@ class MinesBoard implements Iterable<MinesBoard.Cell> {
       if (cell.isOpen()) {
         continue;
       }
-      cell.state = State.OPEN;
-      openedCells.add(cell);
+      cell.markOpen();
+      openedCells.accept(cell);
       unopen -= 1;
+      if (events != null) {
+        events.publish(BoardEventRing.OPENED, cell.index(), cell.value());
+      }
       if (cell.isMine()) {
         kaboom = true;
+        if (events != null) {
+          events.publish(BoardEventRing.EXPLODED, cell.index(), MINE);
+        }
         break; // game over, no need to open more
       }
 
       if (cell.value() == 0) {
-        queue.addAll(neighboursOf(cell, unopenAndNotFlagged)); // to work on next
+        queueUnopenNeighbours(cell, queue); // to work on next
       }
     }
-    return openedCells;
   }
 
   /**
-   * Returns the cells wrongly flagged as being a mine.
+   * Whether the cascades are opened by zero region: not on the boards large enough to be
+   * opened in parallel, nor too large to be labeled.
    */
-  public List<Cell> getWronglyFlaggedCells() {
-    LinkedList<Cell> list = new LinkedList<>();
-    for (int r = 0; r < rows; r++) {
-      for (int c = 0; c < columns; c++) {
-        if (board[r][c].isFlagged() && !board[r][c].isMine())
-          list.add(board[r][c]);
+  private boolean opensRegions() {
+    return cells.length <= ZeroRegions.MAX_CELLS
+      && (cascadePool == null || cells.length < PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Opens the zero region of the specified unopen cell with no adjascent mines, i.e. the
+   * cells a breadth first search would open, provided no cell of the region with no
+   * adjascent mines is open or flagged yet; otherwise the search could be blocked by flags,
+   * and nothing is opened.
+   *
+   * @return whether the region was opened.
+   */
+  private boolean openRegion(Cell cell, Consumer<Cell> openedCells) {
+    ZeroRegions regions = zeroRegions();
+    int region = regions.regionOf(cell.index());
+    int from = regions.runOffsets[region], to = regions.runOffsets[region + 1];
+    for (int run = from; run < to; run++) {
+      for (int i = regions.runStarts[run]; i < regions.runEnds[run]; i++) {
+        if (cells[i].value == 0 && cells[i].state != State.UNOPEN) {
+          return false;
+        }
+      }
+    }
+    // the specified cell first, then the region by index
+    openRegionCell(cell, openedCells);
+    for (int run = from; run < to; run++) {
+      for (int i = regions.runStarts[run]; i < regions.runEnds[run]; i++) {
+        openRegionCell(cells[i], openedCells);
+      }
+    }
+    return true;
+  }
+
+  private void openRegionCell(Cell cell, Consumer<Cell> openedCells) {
+    if (cell.state == State.UNOPEN) {
+      cell.markOpen();
+      openedCells.accept(cell);
+      unopen -= 1;
+      if (events != null) {
+        events.publish(BoardEventRing.OPENED, cell.index(), cell.value);
       }
     }
+  }
+
+  /**
+   * Opens, in parallel, the cascade around the specified unopen cell with no adjascent
+   * mines. The board is split into square tiles and each tile's part of the cascade is
+   * opened by its own task; the cells reached across a tile border are handed over to the
+   * task of their tile in the next round, until no more cells are reached. A cell is only
+   * ever opened by the task of its tile, so tasks don't need to synchronize. No mine can be
+   * opened, the neighbours of a cell with no adjascent mines being free of mines.
+   */
+  private void openCascade(Cell cell, Consumer<Cell> openedCells) {
+    Map<Integer, TileFill> fills = new LinkedHashMap<>();
+    TileFill first = new TileFill(tileOf(cell.index()));
+    first.seed(cell.index());
+    fills.put(first.tile, first);
+    while (!fills.isEmpty()) {
+      Collection<TileFill> round = fills.values();
+      if (round.size() == 1) {
+        round.iterator().next().invoke(); // on this thread
+      } else {
+        cascadePool.invoke(ForkJoinTask.adapt(() -> {
+            ForkJoinTask.invokeAll(round);
+          }));
+      }
+
+      // the cells opened, then the cells reached across the borders for the next round
+      Map<Integer, TileFill> next = new LinkedHashMap<>();
+      for (TileFill fill: round) {
+        for (int i = 0; i < fill.opened; i++) {
+          Cell opened = cells[fill.queue[i]];
+          openedCells.accept(opened);
+          unopen -= 1;
+          if (events != null) {
+            events.publish(BoardEventRing.OPENED, opened.index(), opened.value());
+          }
+        }
+        for (int i = 0; i < fill.crossings; i++) {
+          int index = fill.crossing[i];
+          if (cells[index].isUnopen()) {
+            next.computeIfAbsent(tileOf(index), TileFill::new).seed(index);
+          }
+        }
+      }
+      fills = next;
+    }
+  }
+
+  // the tile of the cell of the specified index
+  private int tileOf(int index) {
+    int tileColumns = (columns + TILE_SIZE - 1) / TILE_SIZE;
+    return (index / columns / TILE_SIZE) * tileColumns + (index % columns) / TILE_SIZE;
+  }
+
+  /**
+   * Adds the UNOPEN (and not FLAGGED) neighbours of the cell to the queue.
+   */
+  private void queueUnopenNeighbours(Cell cell, ArrayDeque<Cell> queue) {
+    int index = cell.index();
+    for (int k = neighbours.offsets[index]; k < neighbours.offsets[index + 1]; k++) {
+      Cell adjCell = cells[neighbours.neighbours[k]];
+      if (adjCell.isUnopen()) {
+        queue.add(adjCell);
+      }
+    }
+  }
+
+  /**
+   * Applies the specified batch of moves, in order, and returns the aggregated changes.
+   * All the moves are validated before any is applied; moves coming after the end of the
+   * game are ignored.
+   *
+   * @throws IllegalArgumentException if any of the moves is invalid.
+   */
+  public MoveDelta apply(MoveBatch batch) {
+    for (int i = 0; i < batch.size(); i++) {
+      validate(batch.row(i), batch.col(i));
+    }
+
+    MoveDelta.Builder delta = new MoveDelta.Builder();
+    Consumer<Cell> openedCells = cell -> delta.opened(cell.index(), cell.value());
+    for (int i = 0; i < batch.size() && !ended(); i++) {
+      Cell cell = cells[batch.row(i) * columns + batch.col(i)];
+      if (batch.op(i) == MoveBatch.FLAG) {
+        State state = flag(cell.row(), cell.col());
+        if (state != State.OPEN) {
+          delta.flagged(cell.index(), state == State.FLAGGED);
+        }
+      } else if (cell.isUnopen() || (cell.isOpen() && isFullyFlagged(cell))) {
+        open(cell, openedCells);
+      }
+    }
+    return delta.build(ended(), kaboom);
+  }
+
+  /**
+   * Returns the cells wrongly flagged as being a mine, row by row.
+   */
+  public List<Cell> getWronglyFlaggedCells() {
+    int[] indexes = Arrays.copyOf(wrongFlags, wrongFlagCount);
+    Arrays.sort(indexes);
+    List<Cell> list = new ArrayList<>(indexes.length);
+    for (int index: indexes) {
+      list.add(cells[index]);
+    }
+    return list;
+  }
+
+  private void addWrongFlag(Cell cell) {
+    if (wrongFlagCount == wrongFlags.length) {
+      wrongFlags = Arrays.copyOf(wrongFlags, 2 * wrongFlagCount);
+    }
+    cell.wrongFlagAt = wrongFlagCount;
+    wrongFlags[wrongFlagCount++] = cell.index();
+  }
+
+  // moves the last wrong flag in place of the removed one
+  private void removeWrongFlag(Cell cell) {
+    if (cell.wrongFlagAt < 0) {
+      return;
+    }
+    int last = wrongFlags[--wrongFlagCount];
+    wrongFlags[cell.wrongFlagAt] = last;
+    cells[last].wrongFlagAt = cell.wrongFlagAt;
+    cell.wrongFlagAt = -1;
+  }
+
+  /**
+   * Returns the mines neither opened nor flagged, row by row. Mines being a sizeable part
+   * of the board, the packed states are scanned rather than the mines.
+   */
+  List<Cell> getHiddenMines() {
+    return cellsOf(CellStates.MINE | CellStates.OPEN | CellStates.FLAGGED, CellStates.MINE);
+  }
+
+  /**
+   * Returns the number of cells neither opened nor flagged, mines included.
+   */
+  int countUnopen() {
+    return states.count(CellStates.OPEN | CellStates.FLAGGED, 0);
+  }
+
+  // the cells whose packed states under the mask are the pattern, by index
+  private List<Cell> cellsOf(int mask, int pattern) {
+    List<Cell> list = new ArrayList<>();
+    for (int i = states.next(0, mask, pattern); i >= 0; i = states.next(i + 1, mask, pattern)) {
+      list.add(cells[i]);
+    }
     return list;
   }
 
+  /**
+   * Returns the number of cells matching the specified predicate. The count is done in
+   * parallel on large boards.
+   */
+  int count(Predicate<Cell> predicate) {
+    return (int) scan().filter(predicate).count();
+  }
+
   /**
    * Whether the game has ended. The game ends when either
    * <ul>
@@ -218,10 +698,16 @@ class MinesBoard implements Iterable<MinesBoard.Cell> {
     return kaboom || unopen == 0;
   }
 
+  /**
+   * Whether a mine has been triggered, i.e. the game is lost.
+   */
+  public boolean exploded() {
+    return kaboom;
+  }
+
   // visible for testing
   boolean isFullyFlagged(Cell cell) {
-    int flagCount = neighboursOf(cell, Cell::isFlagged).size();
-    return flagCount >= cell.value;
+    return cell.flaggedNeighbours >= cell.value;
   }
 
   private void checkArgument(boolean condition, String message, Object ... args) {
@@ -231,8 +717,11 @@ class MinesBoard implements Iterable<MinesBoard.Cell> {
   }
 
   private void validate(int row, int col) throws IllegalArgumentException {
-    checkArgument(0 <= row && row < rows, "Row out of bound: %d", row);
-    checkArgument(0 <= col && col < columns, "Col out of bound: %d", col);
+    // checked first, the arguments of the messages are allocated otherwise
+    if (row < 0 || row >= rows || col < 0 || col >= columns) {
+      checkArgument(0 <= row && row < rows, "Row out of bound: %d", row);
+      checkArgument(0 <= col && col < columns, "Col out of bound: %d", col);
+    }
   }
 
   @Override
@@ -240,27 +729,50 @@ class MinesBoard implements Iterable<MinesBoard.Cell> {
     return new BoardIterator();
   }
 
-  List<Cell> neighboursOf(int row, int col) {
-    validate(row, col);
-    return neighboursOf(board[row][col], (cell) -> true);
+  @Override
+  public Spliterator<Cell> spliterator() {
+    return new BoardSpliterator(0, rows * columns);
+  }
+
+  /**
+   * Returns a sequential stream of the cells, row by row.
+   */
+  Stream<Cell> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /**
+   * Returns a parallel stream of the cells, split by bands of rows.
+   */
+  Stream<Cell> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
+  /**
+   * Returns the stream of the cells' indexes, i.e. {@code row * columns + col}.
+   */
+  IntStream indexStream() {
+    return IntStream.range(0, rows * columns);
+  }
+
+  /**
+   * Returns a stream of the cells for a board-wide scan: parallel on large boards.
+   */
+  private Stream<Cell> scan() {
+    return (rows * columns >= PARALLEL_THRESHOLD) ? parallelStream() : stream();
   }
 
   /**
    * Returns the cells adjascent to the specified cell.
    */
-  private List<Cell> neighboursOf(Cell cell, Predicate<Cell> predicate) {
-    LinkedList<Cell> neighbours = new LinkedList<>();
-    int rmax = Math.min(cell.row() + 1, MinesBoard.this.rows -1);
-    int cmax = Math.min(cell.col() + 1, MinesBoard.this.columns -1);
-    for (int r = Math.max(cell.row() - 1, 0); r <= rmax; r++) {
-      for (int c = Math.max(cell.col() - 1, 0); c <= cmax; c++) {
-        if (predicate.test(board[r][c])) {
-          neighbours.add(board[r][c]);
-        }
-      }
+  List<Cell> neighboursOf(int row, int col) {
+    validate(row, col);
+    int index = row * columns + col;
+    List<Cell> list = new ArrayList<>(neighbours.degree(index));
+    for (int k = neighbours.offsets[index]; k < neighbours.offsets[index + 1]; k++) {
+      list.add(cells[neighbours.neighbours[k]]);
     }
-    neighbours.remove(cell);
-    return neighbours;
+    return list;
   }
 
   /**
@@ -271,12 +783,19 @@ class MinesBoard implements Iterable<MinesBoard.Cell> {
   }
 
   void print(PrintStream stream) {
+    StringBuilder line = new StringBuilder(2 * columns);
     for (int r = 0; r < rows; r++) {
+      line.setLength(0);
       for (int c = 0; c < columns; c++) {
-        Object obj = board[r][c].isMine() ? "M" : board[r][c].value();
-        stream.printf(" %s", obj);
+        int index = r * columns + c;
+        line.append(' ');
+        if ((states.get(index) & CellStates.MINE) != 0) {
+          line.append('M');
+        } else {
+          line.append(cells[index].value);
+        }
       }
-      stream.println();
+      stream.println(line);
     }
   }
 
@@ -301,7 +820,7 @@ class MinesBoard implements Iterable<MinesBoard.Cell> {
       if (curRow >= MinesBoard.this.rows) {
         throw new NoSuchElementException("No more Board.Cell to iterate");
       }
-      Cell cell = board[curRow][curCol];
+      Cell cell = cells[curRow * columns + curCol];
       if (curCol < MinesBoard.this.columns) {
         if (curCol == MinesBoard.this.columns - 1) {
           // reaching the end of a row, move to next row
@@ -315,6 +834,128 @@ class MinesBoard implements Iterable<MinesBoard.Cell> {
     }
   }
 
+  /**
+   * Spliterator over a range of cells' indexes. It splits by bands of rows, so that each
+   * split covers whole rows, unless the range is within a single row.
+   */
+  class BoardSpliterator implements Spliterator<Cell> {
+    // range of indexes [index, end)
+    private int index;
+    private final int end;
+
+    private BoardSpliterator(int index, int end) {
+      this.index = index;
+      this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Cell> action) {
+      if (index >= end) {
+        return false;
+      }
+      action.accept(cells[index]);
+      index += 1;
+      return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Cell> action) {
+      for (int i = index; i < end; i++) {
+        action.accept(cells[i]);
+      }
+      index = end;
+    }
+
+    @Override
+    public Spliterator<Cell> trySplit() {
+      int mid = (index + end) >>> 1;
+      int rowStart = mid - mid % columns; // start of the row band
+      if (rowStart > index) {
+        mid = rowStart;
+      }
+      if (mid <= index || end - index < 2) {
+        return null;
+      }
+      Spliterator<Cell> prefix = new BoardSpliterator(index, mid);
+      index = mid;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+      return SIZED | SUBSIZED | ORDERED | NONNULL;
+    }
+  }
+
+  /**
+   * Opens the part of a cascade within a tile, starting from seed cells.
+   */
+  private final class TileFill extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int tile;
+
+    private int[] seeds = new int[8];
+    private int seedCount;
+
+    // the cells opened, in order, also used as the breadth first search queue
+    private int[] queue;
+    private int opened;
+
+    // the cells of other tiles adjascent to an opened cell with no adjascent mines
+    private int[] crossing = new int[16];
+    private int crossings;
+
+    TileFill(int tile) {
+      this.tile = tile;
+    }
+
+    void seed(int index) {
+      if (seedCount == seeds.length) {
+        seeds = Arrays.copyOf(seeds, 2 * seedCount);
+      }
+      seeds[seedCount++] = index;
+    }
+
+    @Override
+    protected void compute() {
+      queue = new int[TILE_SIZE * TILE_SIZE];
+      for (int i = 0; i < seedCount; i++) {
+        open(seeds[i]);
+      }
+      for (int head = 0; head < opened; head++) {
+        int index = queue[head];
+        if (cells[index].value != 0) {
+          continue;
+        }
+        for (int k = neighbours.offsets[index]; k < neighbours.offsets[index + 1]; k++) {
+          int adj = neighbours.neighbours[k];
+          if (tileOf(adj) == tile) {
+            open(adj);
+          } else {
+            if (crossings == crossing.length) {
+              crossing = Arrays.copyOf(crossing, 2 * crossings);
+            }
+            crossing[crossings++] = adj;
+          }
+        }
+      }
+    }
+
+    private void open(int index) {
+      Cell cell = cells[index];
+      if (cell.state == State.UNOPEN) {
+        cell.markOpen();
+        queue[opened++] = index;
+      }
+    }
+  }
+
   /**
    * Represents a cell/square on the mines board. A cell has a {@link #value} that is either
    * a MINE, or the number of mines surrounding the cell.
@@ -325,6 +966,16 @@ class MinesBoard implements Iterable<MinesBoard.Cell> {
     private int value;
     private State state;
 
+    /**
+     * The number of flagged cells adjascent to this cell.
+     */
+    private int flaggedNeighbours;
+
+    /**
+     * Where the index of this cell is in the wrong flags; -1 if not wrongly flagged.
+     */
+    private int wrongFlagAt = -1;
+
     Cell(int row, int col) {
       this.row = row;
       this.col = col;
@@ -346,6 +997,13 @@ class MinesBoard implements Iterable<MinesBoard.Cell> {
       return col;
     }
 
+    /**
+     * The index of this cell on the mines board, i.e. {@code row * columns + col}.
+     */
+    int index() {
+      return row * columns + col;
+    }
+
     int value() {
       return value;
     }
@@ -377,9 +1035,22 @@ class MinesBoard implements Iterable<MinesBoard.Cell> {
         return State.OPEN;
       }
       state = (state == State.UNOPEN) ? State.FLAGGED : State.UNOPEN;
+      if (state == State.FLAGGED) {
+        states.set(index(), CellStates.FLAGGED);
+      } else {
+        states.clear(index(), CellStates.FLAGGED);
+      }
       return state;
     }
 
+    /**
+     * Opens the cell; it's unopen.
+     */
+    void markOpen() {
+      state = State.OPEN;
+      states.set(index(), CellStates.OPEN);
+    }
+
     @Override
     public int hashCode() {
       return Objects.hash(row, col, value);
@@ -10,6 +10,7 @@ package com.nwsummit.games.mines;
 
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.geometry.Bounds;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
@@ -28,13 +29,28 @@ import javafx.scene.text.Text;
 // must be public for FXML
 public class MinesPane extends GridPane {
 
+  /**
+   * Side of the squares, in pixels.
+   */
+  static final double SQUARE_SIZE = 30;
+
   private Square[][] squares;
+  private int rows, columns;
+
+  // outline of the square under the keyboard cursor
+  private final Rectangle cursor = new Rectangle(SQUARE_SIZE, SQUARE_SIZE);
+
+  // the square shown as hint, if any
+  private Square hint;
 
   /**
    * Initializes this pane to the specified number of (rows, columns) {@link Square}s.
    */
-  void initialize(int rows, int columns, GameController.SquareMouseHandler handler) {
+  void initialize(int rows, int columns) {
     getChildren().clear(); // clear any existing squares
+    hint = null;
+    this.rows = rows;
+    this.columns = columns;
 
     squares = new Square[rows][columns];
 
@@ -43,7 +59,6 @@ public class MinesPane extends GridPane {
     for (int r = 0; r < rows; r++) {
       for (int c = 0; c < columns; c++) {
         Square square = new Square(r, c, gradient);
-        square.setOnMouseClicked(event -> handler.handle(event, square));
         add(square, c, r);
         squares[r][c] = square;
       }
@@ -54,6 +69,83 @@ public class MinesPane extends GridPane {
     return squares[row][col];
   }
 
+  int rows() {
+    return rows;
+  }
+
+  int columns() {
+    return columns;
+  }
+
+  /**
+   * Returns the square at the specified coordinates of this pane, null if none, e.g. in
+   * the gap between squares. The square is found arithmetically from the position of the
+   * first square, the squares being of the same size and evenly spaced.
+   */
+  Square squareAt(double x, double y) {
+    if (squares == null) {
+      return null;
+    }
+    Bounds first = squares[0][0].getBoundsInParent();
+    double left = x - first.getMinX(), top = y - first.getMinY();
+    double pitchX = SQUARE_SIZE + getHgap(), pitchY = SQUARE_SIZE + getVgap();
+    if (left < 0 || top < 0) {
+      return null;
+    }
+    int col = (int) (left / pitchX), row = (int) (top / pitchY);
+    if (row >= rows || col >= columns
+        || left - col * pitchX >= SQUARE_SIZE || top - row * pitchY >= SQUARE_SIZE) {
+      return null;
+    }
+    return squares[row][col];
+  }
+
+  /**
+   * Outlines the square at the specified (row, col) as the keyboard cursor.
+   */
+  void showCursor(int row, int col) {
+    if (cursor.getParent() == null) {
+      cursor.setFill(null);
+      cursor.setStroke(Color.ORANGE);
+      cursor.setStrokeWidth(3);
+      cursor.setArcWidth(10);
+      cursor.setArcHeight(10);
+      cursor.setMouseTransparent(true);
+      add(cursor, col, row);
+    }
+    setConstraints(cursor, col, row);
+  }
+
+  /**
+   * Shows the mine probability of each square, by cell index, as a heatmap from green
+   * (safe) to red (mine). Squares of negative probability, e.g. open or flagged, aren't
+   * shaded. A null array clears the heatmap.
+   */
+  void showHeatmap(float[] probabilities) {
+    if (squares == null) {
+      return; // not initialized yet, e.g. the first board isn't ready
+    }
+    int columns = squares[0].length;
+    for (int r = 0; r < squares.length; r++) {
+      for (int c = 0; c < columns; c++) {
+        squares[r][c].heat((probabilities == null) ? -1 : probabilities[r * columns + c]);
+      }
+    }
+  }
+
+  /**
+   * Highlights the specified square as hint, or clears the hint if the square is null.
+   */
+  void showHint(Square square) {
+    if (hint != null) {
+      hint.highlight(false);
+    }
+    hint = square;
+    if (hint != null) {
+      hint.highlight(true);
+    }
+  }
+
   /**
    * UI representation of a square/cell in the mines board.
    */
@@ -63,6 +155,11 @@ public class MinesPane extends GridPane {
 
     private final Text text;
 
+    private final Rectangle background;
+
+    // translucent overlay showing the mine probability
+    private final Rectangle heat;
+
     /**
      * Property controlling the rendering of the square as unopen or open.
      */
@@ -75,14 +172,21 @@ public class MinesPane extends GridPane {
       text = new Text();
       text.setFont(Font.font("serif", FontWeight.BOLD, 16));
 
-      Rectangle background = new Rectangle(30, 30);
+      background = new Rectangle(SQUARE_SIZE, SQUARE_SIZE);
       background.setArcWidth(10);
       background.setArcHeight(10);
       background.fillProperty()
         .bind(Bindings.when(open)
                       .then((Paint)Color.BEIGE)
                       .otherwise(gradient));
-      getChildren().addAll(background, text);
+
+      heat = new Rectangle(SQUARE_SIZE, SQUARE_SIZE);
+      heat.setArcWidth(10);
+      heat.setArcHeight(10);
+      heat.setMouseTransparent(true);
+      heat.setVisible(false);
+
+      getChildren().addAll(background, heat, text);
     }
 
     int row() {
@@ -101,6 +205,24 @@ public class MinesPane extends GridPane {
     void open(String symb, Color color) {
       open.set(true);
       show(symb, color);
+      heat(-1);
+    }
+
+    /**
+     * Shades the square by the specified mine probability; hides the shade if negative.
+     */
+    void heat(float probability) {
+      if (probability < 0 || open.get()) {
+        heat.setVisible(false);
+      } else {
+        heat.setFill(Color.hsb(120 * (1 - probability), 0.9, 0.9, 0.6));
+        heat.setVisible(true);
+      }
+    }
+
+    void highlight(boolean on) {
+      background.setStroke(on ? Color.DODGERBLUE : null);
+      background.setStrokeWidth(on ? 3 : 0);
     }
   }
 }
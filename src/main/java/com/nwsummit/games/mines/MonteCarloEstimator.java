@@ -0,0 +1,790 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Estimates the probability of each cell of a {@link MinesBoard} to be a mine, by sampling
+ * random mines layouts consistent with the visible state of the board: the numbers of the
+ * open cells, the flags (taken as mines) and the total number of mines.
+ * <p>
+ * Unknown cells are split into
+ * <ul>
+ * <li>frontier cells, adjascent to an open numbered cell. Each has its own estimate.</li>
+ * <li>interior cells, not constrained by any number. They are interchangeable, so only
+ * the number of mines among them is tracked.</li>
+ * </ul>
+ * Layouts are sampled by Markov chains, one per worker of the {@link ForkJoinPool}, each
+ * with its own split random stream. A chain first searches a consistent layout, then walks
+ * through the consistent layouts, redrawing a small block of frontier cells at a time so
+ * that its samples are uniformly distributed. The work per sample grows linearly with the
+ * frontier, and the chains can be {@link #cancel}led.
+ * Estimates accumulate over calls to {@link #sample}, so the {@link #confidence} bounds
+ * tighten as more samples are drawn.
+ * <p>
+ * The estimator works on a snapshot of the board taken at construction.
+ */
+class MonteCarloEstimator {
+
+  /**
+   * Maximum number of frontier cells of a block, drawn at once by a chain's move.
+   */
+  private static final int BLOCK_SIZE = 12;
+
+  /**
+   * Number of steps, fixed and per frontier cell, of an attempt to find a consistent
+   * layout, and number of attempts.
+   */
+  private static final int SEARCH_STEPS = 100_000, SEARCH_STEPS_PER_CELL = 100;
+  private static final int SEARCH_ATTEMPTS = 8;
+
+  /**
+   * Z-value of the 95% confidence bounds.
+   */
+  private static final double Z95 = 1.96;
+
+  // role of the board cells, other than the frontier cells' local index (>= 0)
+  private static final int INTERIOR = -1, SAFE = -2, MINE = -3;
+
+  /**
+   * For each board cell, either its frontier index or its role.
+   */
+  private final int[] roles;
+
+  // CSR tables: frontier cell -> constraints, and constraint -> frontier cells
+  private final int[] cellOffsets, cellConstraints;
+  private final int[] constraintOffsets, constraintCells;
+
+  /**
+   * Number of unknown mines around each constraint (open numbered cell).
+   */
+  private final int[] required;
+
+  private final int frontierSize, interiorSize, unknownMines;
+
+  private final ForkJoinPool pool;
+  private final Chain[] chains;
+
+  private volatile boolean cancelled;
+
+  /**
+   * Creates an estimator running on the common {@link ForkJoinPool}.
+   */
+  MonteCarloEstimator(MinesBoard board) {
+    this(Snapshot.of(board), ForkJoinPool.commonPool(), System.nanoTime());
+  }
+
+  /**
+   * Creates an estimator running on the specified pool, with one chain per worker.
+   *
+   * @throws IllegalStateException if the visible board state is inconsistent, e.g. a
+   *         numbered cell surrounded by more flags than its number.
+   */
+  MonteCarloEstimator(MinesBoard board, ForkJoinPool pool, long seed) {
+    this(Snapshot.of(board), pool, seed);
+  }
+
+  /**
+   * Creates an estimator of the specified snapshot of a board, running on the specified
+   * pool, with one chain per worker.
+   *
+   * @throws IllegalStateException if the visible board state is inconsistent.
+   */
+  MonteCarloEstimator(Snapshot snapshot, ForkJoinPool pool, long seed) {
+    this.pool = pool;
+    byte[] visible = snapshot.cells;
+    NeighbourTable table = snapshot.table;
+    int cells = visible.length;
+    roles = new int[cells];
+
+    int knownMines = 0;
+    for (int i = 0; i < cells; i++) {
+      if (visible[i] == Snapshot.FLAGGED || visible[i] == Snapshot.EXPLODED) {
+        roles[i] = MINE;
+        knownMines += 1;
+      } else {
+        roles[i] = (visible[i] >= 0) ? SAFE : INTERIOR;
+      }
+    }
+
+    // constraints from the open numbered cells, and frontier cells around them
+    int frontier = 0, constraints = 0, entries = 0;
+    int[] requiredOf = new int[16], offsets = new int[17], cellsOf = new int[64];
+    for (int i = 0; i < cells; i++) {
+      if (visible[i] < 0) {
+        continue;
+      }
+      int mines = visible[i], end = entries;
+      for (int k = table.offsets[i]; k < table.offsets[i + 1]; k++) {
+        int adj = table.neighbours[k];
+        int role = roles[adj];
+        if (role == MINE) {
+          mines -= 1;
+        } else if (role != SAFE) {
+          if (role == INTERIOR) {
+            roles[adj] = frontier++;
+          }
+          if (end == cellsOf.length) {
+            cellsOf = Arrays.copyOf(cellsOf, 2 * end);
+          }
+          cellsOf[end++] = roles[adj];
+        }
+      }
+      check(0 <= mines && mines <= end - entries, "Inconsistent number at %d", i);
+      if (end > entries) {
+        if (constraints + 1 == requiredOf.length) {
+          requiredOf = Arrays.copyOf(requiredOf, 2 * requiredOf.length);
+          offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+        }
+        requiredOf[constraints] = mines;
+        offsets[++constraints] = end;
+        entries = end;
+      }
+    }
+    int interior = 0;
+    for (int role: roles) {
+      if (role == INTERIOR) {
+        interior += 1;
+      }
+    }
+    frontierSize = frontier;
+    interiorSize = interior;
+    unknownMines = snapshot.mines - knownMines;
+    check(0 <= unknownMines && unknownMines <= frontier + interior,
+          "Inconsistent number of unknown mines: %d", unknownMines);
+
+    required = Arrays.copyOf(requiredOf, constraints);
+    constraintOffsets = Arrays.copyOf(offsets, constraints + 1);
+    constraintCells = Arrays.copyOf(cellsOf, entries);
+    cellOffsets = new int[frontier + 1];
+    for (int k = 0; k < entries; k++) {
+      cellOffsets[constraintCells[k] + 1] += 1;
+    }
+    for (int x = 0; x < frontier; x++) {
+      cellOffsets[x + 1] += cellOffsets[x];
+    }
+    cellConstraints = new int[entries];
+    int[] fill = Arrays.copyOf(cellOffsets, frontier);
+    for (int c = 0; c < constraints; c++) {
+      for (int k = constraintOffsets[c]; k < constraintOffsets[c + 1]; k++) {
+        cellConstraints[fill[constraintCells[k]]++] = c;
+      }
+    }
+
+    SplittableRandom random = new SplittableRandom(seed);
+    chains = new Chain[pool.getParallelism()];
+    for (int i = 0; i < chains.length; i++) {
+      chains[i] = new Chain(random.split());
+    }
+  }
+
+  private static void check(boolean condition, String message, Object ... args) {
+    if (!condition) {
+      throw new IllegalStateException(String.format(message, args));
+    }
+  }
+
+  /**
+   * Draws (about) the specified number of samples, spread over the chains running in
+   * parallel, and adds them to the estimates.
+   *
+   * @throws IllegalStateException if no consistent layout could be found.
+   * @throws CancellationException if the estimator was {@link #cancel}led, or the chains'
+   *         thread interrupted.
+   */
+  void sample(int samples) {
+    checkCancelled();
+    int perChain = (samples + chains.length - 1) / chains.length;
+    List<Callable<Void>> tasks = new ArrayList<>(chains.length);
+    for (Chain chain: chains) {
+      tasks.add(() -> {
+          chain.sample(perChain);
+          return null;
+        });
+    }
+    for (Future<Void> future: pool.invokeAll(tasks)) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Sampling interrupted", e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new IllegalStateException(e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Cancels the sampling: the chains running stop soon, and later calls to {@link #sample}
+   * fail.
+   */
+  void cancel() {
+    cancelled = true;
+  }
+
+  private void checkCancelled() {
+    if (cancelled || Thread.currentThread().isInterrupted()) {
+      throw new CancellationException("Sampling cancelled");
+    }
+  }
+
+  /**
+   * The number of samples drawn so far.
+   */
+  int samples() {
+    int samples = 0;
+    for (Chain chain: chains) {
+      samples += chain.samples;
+    }
+    return samples;
+  }
+
+  /**
+   * Returns the estimated mine probability of each cell, by cell index. Open cells have
+   * probability 0 and flagged cells 1.
+   *
+   * @throws IllegalStateException if no sample has been drawn yet.
+   */
+  float[] probabilities() {
+    int samples = samples();
+    check(samples > 0, "No samples drawn");
+
+    long[] mineCounts = new long[frontierSize];
+    long interiorMines = 0;
+    for (Chain chain: chains) {
+      for (int x = 0; x < frontierSize; x++) {
+        mineCounts[x] += chain.mineCounts[x];
+      }
+      interiorMines += chain.interiorMines;
+    }
+
+    float interiorProbability = (interiorSize == 0)
+      ? 0f : (float) ((double) interiorMines / samples / interiorSize);
+    float[] probabilities = new float[roles.length];
+    for (int i = 0; i < roles.length; i++) {
+      int role = roles[i];
+      if (role >= 0) {
+        probabilities[i] = (float) ((double) mineCounts[role] / samples);
+      } else if (role == INTERIOR) {
+        probabilities[i] = interiorProbability;
+      } else {
+        probabilities[i] = (role == MINE) ? 1f : 0f;
+      }
+    }
+    return probabilities;
+  }
+
+  /**
+   * Returns the half width of the 95% confidence interval of each cell's probability,
+   * i.e. the probability is within {@code p +/- confidence}. Known cells have a zero
+   * width. The bounds shrink as the square root of the number of samples; they assume
+   * independent samples and are therefore somewhat optimistic.
+   */
+  float[] confidence() {
+    float[] probabilities = probabilities();
+    int samples = samples();
+    float[] confidence = new float[roles.length];
+    for (int i = 0; i < roles.length; i++) {
+      if (roles[i] >= 0 || roles[i] == INTERIOR) {
+        double p = probabilities[i];
+        confidence[i] = (float) (Z95 * Math.sqrt(p * (1 - p) / samples));
+      }
+    }
+    return confidence;
+  }
+
+  /**
+   * The visible state of a board, copied in a byte per cell on the thread owning the board,
+   * for an estimator built on another thread: the number of each open cell, or
+   * {@link #UNOPEN}, {@link #FLAGGED} or {@link #EXPLODED}.
+   */
+  static final class Snapshot {
+    static final byte UNOPEN = -1, FLAGGED = -2, EXPLODED = -3;
+
+    private final byte[] cells;
+    private final NeighbourTable table;
+    private final int mines;
+
+    private Snapshot(byte[] cells, NeighbourTable table, int mines) {
+      this.cells = cells;
+      this.table = table;
+      this.mines = mines;
+    }
+
+    /**
+     * Copies the visible state of the specified board.
+     */
+    static Snapshot of(MinesBoard board) {
+      byte[] cells = new byte[board.rows() * board.columns()];
+      for (int i = 0; i < cells.length; i++) {
+        MinesBoard.Cell cell = board.get(i);
+        if (cell.isFlagged()) {
+          cells[i] = FLAGGED;
+        } else if (!cell.isOpen()) {
+          cells[i] = UNOPEN;
+        } else {
+          cells[i] = cell.isMine() ? EXPLODED : (byte) cell.value();
+        }
+      }
+      return new Snapshot(cells, board.neighbourTable(), board.mines());
+    }
+
+    /**
+     * Whether the cell of the specified index is unopen and not flagged.
+     */
+    boolean isUnknown(int index) {
+      return cells[index] == UNOPEN;
+    }
+
+    /**
+     * The number of cells of the board.
+     */
+    int size() {
+      return cells.length;
+    }
+  }
+
+  /**
+   * A Markov chain over the mines layouts consistent with the board.
+   * <p>
+   * The chain never leaves the consistent layouts: each move picks a small block of
+   * frontier cells, lists the mines arrangements of the block consistent with the rest of
+   * the layout, and draws one of them weighted by the number of interior layouts it leaves
+   * (block Gibbs sampling). A block is either a ball of cells around a random cell, or two
+   * smaller balls, so that mines can also move between distant parts of the frontier when
+   * the interior can't take them.
+   */
+  private class Chain {
+    private final SplittableRandom random;
+
+    // mines layout: frontier cells, and number of mines in the interior
+    private final boolean[] mine = new boolean[frontierSize];
+    private int interior;
+
+    // number of mines around each constraint
+    private final int[] counts = new int[required.length];
+
+    private boolean consistent;
+
+    // the block of cells drawn, with its constraints by local index: their number of
+    // mines required from the block, counted so far, and the block cell counted last
+    private final int[] block = new int[BLOCK_SIZE];
+    private final int[] blockOffsets = new int[BLOCK_SIZE + 1];
+    private final int[] blockConstraints;
+    private final int[] need, partial, last;
+    private final int[] cellStamps = new int[frontierSize];
+    private final int[] constraintStamps = new int[required.length];
+    private final int[] local = new int[required.length];
+    private int stamp;
+
+    // the consistent arrangements of the block: mines bits, and number of mines
+    private final int[] arrangements = new int[1 << BLOCK_SIZE];
+    private final int[] arrangementMines = new int[1 << BLOCK_SIZE];
+    private int nArrangements;
+    private final double[] weights = new double[BLOCK_SIZE + 1];
+
+    // accumulated samples
+    private final long[] mineCounts = new long[frontierSize];
+    private long interiorMines;
+    private int samples;
+
+    Chain(SplittableRandom random) {
+      this.random = random;
+      int maxDegree = 0;
+      for (int x = 0; x < frontierSize; x++) {
+        maxDegree = Math.max(maxDegree, cellOffsets[x + 1] - cellOffsets[x]);
+      }
+      blockConstraints = new int[BLOCK_SIZE * maxDegree];
+      need = new int[blockConstraints.length];
+      partial = new int[blockConstraints.length];
+      last = new int[blockConstraints.length];
+    }
+
+    void sample(int n) {
+      if (!consistent) {
+        solve();
+        consistent = true;
+        walk(10 * thinning());
+      }
+      for (int i = 0; i < n; i++) {
+        walk(thinning());
+        for (int x = 0; x < frontierSize; x++) {
+          if (mine[x]) {
+            mineCounts[x] += 1;
+          }
+        }
+        interiorMines += interior;
+        samples += 1;
+      }
+    }
+
+    /**
+     * Number of moves between two samples, for each frontier cell to be drawn about twice.
+     */
+    private int thinning() {
+      return Math.max(2 * frontierSize / BLOCK_SIZE, 4);
+    }
+
+    /**
+     * Searches a consistent layout by backtracking over the frontier cells: each decision
+     * sets the next unknown cell, in breadth first order from a random cell, to a random
+     * value, then the constraints propagate the cells it forces; on a conflict, the last
+     * decision not tried both ways is flipped. An attempt gives up after a number of
+     * steps, to start over in another order.
+     */
+    private void solve() {
+      interior = unknownMines;
+      if (frontierSize == 0) {
+        return;
+      }
+      Search search = new Search();
+      long maxSteps = SEARCH_STEPS + SEARCH_STEPS_PER_CELL * (long) frontierSize;
+      for (int attempt = 1; !search.run(maxSteps); attempt++) {
+        check(attempt < SEARCH_ATTEMPTS, "No mines layout consistent with the board found");
+      }
+      interior = unknownMines - search.placed;
+    }
+
+    /**
+     * The state of a search: the cells set, in order, and the decisions among them.
+     */
+    private final class Search {
+      private final int[] order = new int[frontierSize];
+      private final boolean[] known = new boolean[frontierSize];
+      private final int[] remaining = new int[required.length];
+      private final int[] trail = new int[frontierSize];
+      private int size, placed;
+
+      // the decisions: trail size before, cell, value, whether flipped, and order position
+      private final int[] levelStart = new int[frontierSize];
+      private final int[] levelCell = new int[frontierSize];
+      private final boolean[] levelValue = new boolean[frontierSize];
+      private final boolean[] levelFlipped = new boolean[frontierSize];
+      private final int[] levelNext = new int[frontierSize];
+      private int level;
+
+      // the constraints to propagate
+      private final int[] queue = new int[required.length];
+      private final boolean[] queued = new boolean[required.length];
+      private int queueSize;
+
+      private final double density = (double) unknownMines / (frontierSize + interiorSize);
+
+      /**
+       * Runs an attempt, from scratch.
+       *
+       * @return whether a consistent layout was found, false if the attempt gave up.
+       */
+      boolean run(long maxSteps) {
+        order(order);
+        undo(0);
+        for (int c = 0; c < required.length; c++) {
+          remaining[c] = constraintOffsets[c + 1] - constraintOffsets[c];
+          enqueue(c);
+        }
+        level = 0;
+        int next = 0;
+        for (long step = 1; step <= maxSteps; step++) {
+          if ((step & 0xfff) == 0) {
+            checkCancelled();
+          }
+          if (propagate()) {
+            while (next < frontierSize && known[order[next]]) {
+              next += 1;
+            }
+            if (next == frontierSize) {
+              return true;
+            }
+            levelStart[level] = size;
+            levelCell[level] = order[next];
+            levelValue[level] = random.nextDouble() < density;
+            levelFlipped[level] = false;
+            levelNext[level] = next;
+            set(order[next], levelValue[level]);
+            level += 1;
+          } else {
+            // back to the last decision not flipped yet
+            while (level > 0 && levelFlipped[level - 1]) {
+              level -= 1;
+            }
+            check(level > 0, "No mines layout consistent with the board");
+            int l = level - 1;
+            undo(levelStart[l]);
+            levelFlipped[l] = true;
+            levelValue[l] = !levelValue[l];
+            next = levelNext[l];
+            set(levelCell[l], levelValue[l]);
+          }
+        }
+        return false;
+      }
+
+      private void set(int x, boolean value) {
+        known[x] = true;
+        mine[x] = value;
+        trail[size++] = x;
+        placed += value ? 1 : 0;
+        for (int i = cellOffsets[x]; i < cellOffsets[x + 1]; i++) {
+          int c = cellConstraints[i];
+          remaining[c] -= 1;
+          counts[c] += value ? 1 : 0;
+          enqueue(c);
+        }
+      }
+
+      /**
+       * Resets the cells set after the specified trail size.
+       */
+      private void undo(int to) {
+        while (size > to) {
+          int x = trail[--size];
+          int value = mine[x] ? 1 : 0;
+          known[x] = false;
+          mine[x] = false;
+          placed -= value;
+          for (int i = cellOffsets[x]; i < cellOffsets[x + 1]; i++) {
+            int c = cellConstraints[i];
+            remaining[c] += 1;
+            counts[c] -= value;
+          }
+        }
+      }
+
+      private void enqueue(int c) {
+        if (!queued[c]) {
+          queued[c] = true;
+          queue[queueSize++] = c;
+        }
+      }
+
+      /**
+       * Sets the cells forced by the queued constraints, until none is left.
+       *
+       * @return false on a conflict, i.e. a constraint or the total number of mines can't
+       *         be satisfied any more.
+       */
+      private boolean propagate() {
+        boolean consistent = true;
+        while (queueSize > 0) {
+          int c = queue[--queueSize];
+          queued[c] = false;
+          if (!consistent || remaining[c] == 0 && counts[c] == required[c]) {
+            continue;
+          }
+          if (counts[c] > required[c] || counts[c] + remaining[c] < required[c]) {
+            consistent = false;
+          } else if (counts[c] == required[c] || counts[c] + remaining[c] == required[c]) {
+            boolean value = counts[c] < required[c];
+            for (int j = constraintOffsets[c]; j < constraintOffsets[c + 1]; j++) {
+              if (!known[constraintCells[j]]) {
+                set(constraintCells[j], value);
+              }
+            }
+          }
+        }
+        return consistent
+          && placed <= unknownMines
+          && placed + (frontierSize - size) + interiorSize >= unknownMines;
+      }
+    }
+
+    /**
+     * Orders the frontier cells breadth first, from a random cell of each part.
+     */
+    private void order(int[] order) {
+      stamp += 1;
+      int start = random.nextInt(frontierSize);
+      int size = 0;
+      for (int i = 0; i < frontierSize; i++) {
+        int x = (start + i) % frontierSize;
+        if (cellStamps[x] != stamp) {
+          int head = size;
+          cellStamps[x] = stamp;
+          order[size++] = x;
+          while (head < size) {
+            size = addAdjascent(order[head++], order, size, frontierSize);
+          }
+        }
+      }
+    }
+
+    /**
+     * Adds the cells sharing a constraint with the specified cell, and not stamped yet, to
+     * the specified cells, up to the specified limit.
+     *
+     * @return the new number of cells.
+     */
+    private int addAdjascent(int x, int[] cells, int size, int limit) {
+      for (int i = cellOffsets[x]; i < cellOffsets[x + 1]; i++) {
+        int c = cellConstraints[i];
+        for (int j = constraintOffsets[c]; j < constraintOffsets[c + 1] && size < limit; j++) {
+          int y = constraintCells[j];
+          if (cellStamps[y] != stamp) {
+            cellStamps[y] = stamp;
+            cells[size++] = y;
+          }
+        }
+      }
+      return size;
+    }
+
+    /**
+     * Walks the specified number of moves, each drawing a block anew.
+     */
+    private void walk(int moves) {
+      if (frontierSize == 0) {
+        return;
+      }
+      for (int i = 0; i < moves; i++) {
+        if ((i & 0xff) == 0) {
+          checkCancelled();
+        }
+        draw(pickBlock());
+      }
+    }
+
+    /**
+     * Picks a block of frontier cells: one ball, or two half balls, around random cells.
+     *
+     * @return the number of cells of the block.
+     */
+    private int pickBlock() {
+      stamp += 1;
+      int balls = random.nextBoolean() ? 1 : 2;
+      int size = 0;
+      for (int ball = 1; ball <= balls; ball++) {
+        int x = random.nextInt(frontierSize);
+        if (cellStamps[x] == stamp) {
+          continue;
+        }
+        int head = size, limit = BLOCK_SIZE * ball / balls;
+        cellStamps[x] = stamp;
+        block[size++] = x;
+        while (head < size && size < limit) {
+          size = addAdjascent(block[head++], block, size, limit);
+        }
+      }
+      return size;
+    }
+
+    /**
+     * Draws the arrangement of the specified block among its consistent ones, weighted by
+     * the number of interior layouts each leaves.
+     */
+    private void draw(int size) {
+      // the block's constraints, and the mines they need from the block
+      int nLocal = 0, n = 0, currentMines = 0;
+      for (int p = 0; p < size; p++) {
+        int x = block[p];
+        currentMines += mine[x] ? 1 : 0;
+        blockOffsets[p] = n;
+        for (int i = cellOffsets[x]; i < cellOffsets[x + 1]; i++) {
+          int c = cellConstraints[i];
+          if (constraintStamps[c] != stamp) {
+            constraintStamps[c] = stamp;
+            local[c] = nLocal;
+            need[nLocal] = required[c] - counts[c];
+            partial[nLocal] = 0;
+            nLocal += 1;
+          }
+          int l = local[c];
+          need[l] += mine[x] ? 1 : 0;
+          last[l] = p;
+          blockConstraints[n++] = l;
+        }
+      }
+      blockOffsets[size] = n;
+
+      nArrangements = 0;
+      arrange(0, size, 0, 0);
+
+      // weights: the number of interior layouts, relative to the current one's
+      int currentInterior = interior;
+      for (int k = 0; k <= size; k++) {
+        weights[k] = 0;
+      }
+      double ratio = 1;
+      for (int k = currentMines, m = currentInterior; k <= size && m >= 0; k++, m--) {
+        weights[k] = ratio;
+        ratio *= (double) m / (interiorSize - m + 1);
+      }
+      ratio = 1;
+      for (int k = currentMines, m = currentInterior; k >= 0 && m <= interiorSize; k--, m++) {
+        weights[k] = ratio;
+        ratio *= (double) (interiorSize - m) / (m + 1);
+      }
+      double total = 0;
+      for (int a = 0; a < nArrangements; a++) {
+        total += weights[arrangementMines[a]];
+      }
+      double u = random.nextDouble() * total;
+      int chosen = nArrangements - 1;
+      for (int a = 0; a < nArrangements; a++) {
+        u -= weights[arrangementMines[a]];
+        if (u < 0) {
+          chosen = a;
+          break;
+        }
+      }
+
+      int bits = arrangements[chosen];
+      for (int p = 0; p < size; p++) {
+        boolean value = (bits & (1 << p)) != 0;
+        int x = block[p];
+        if (mine[x] != value) {
+          mine[x] = value;
+          for (int i = cellOffsets[x]; i < cellOffsets[x + 1]; i++) {
+            counts[cellConstraints[i]] += value ? 1 : -1;
+          }
+        }
+      }
+      interior = currentInterior + currentMines - arrangementMines[chosen];
+    }
+
+    /**
+     * Lists the consistent arrangements of the block cells from the specified one, given
+     * the arrangement of the ones before.
+     */
+    private void arrange(int p, int size, int bits, int mines) {
+      if (p == size) {
+        arrangements[nArrangements] = bits;
+        arrangementMines[nArrangements] = mines;
+        nArrangements += 1;
+        return;
+      }
+      for (int value = 0; value <= 1; value++) {
+        int i = blockOffsets[p];
+        boolean ok = true;
+        for (; i < blockOffsets[p + 1] && ok; i++) {
+          int l = blockConstraints[i];
+          partial[l] += value;
+          ok = partial[l] <= need[l] && (last[l] != p || partial[l] == need[l]);
+        }
+        if (ok) {
+          arrange(p + 1, size, bits | (value << p), mines + value);
+        }
+        for (int j = blockOffsets[p]; j < i; j++) {
+          partial[blockConstraints[j]] -= value;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.util.Arrays;
+
+/**
+ * A batch of moves to be applied on a {@link MinesBoard} in one call. The moves are packed
+ * in an int array as (op, row, col) triples, where op is either {@link #OPEN} or
+ * {@link #FLAG}.
+ *
+ * @see MinesBoard#apply
+ */
+final class MoveBatch {
+
+  static final int OPEN = 0;
+  static final int FLAG = 1;
+
+  private int[] moves;
+  private int size;
+
+  /**
+   * Creates an empty batch with room for the specified number of moves.
+   */
+  MoveBatch(int capacity) {
+    moves = new int[3 * Math.max(capacity, 1)];
+  }
+
+  /**
+   * Creates a batch from packed (op, row, col) triples.
+   *
+   * @throws IllegalArgumentException if the array isn't made of triples of valid ops.
+   */
+  static MoveBatch of(int... moves) {
+    if (moves.length % 3 != 0) {
+      throw new IllegalArgumentException("Moves must be (op, row, col) triples: " + moves.length);
+    }
+    MoveBatch batch = new MoveBatch(moves.length / 3);
+    for (int i = 0; i < moves.length; i += 3) {
+      batch.add(moves[i], moves[i + 1], moves[i + 2]);
+    }
+    return batch;
+  }
+
+  MoveBatch open(int row, int col) {
+    return add(OPEN, row, col);
+  }
+
+  MoveBatch flag(int row, int col) {
+    return add(FLAG, row, col);
+  }
+
+  private MoveBatch add(int op, int row, int col) {
+    if (op != OPEN && op != FLAG) {
+      throw new IllegalArgumentException("Invalid move op: " + op);
+    }
+    if (3 * size == moves.length) {
+      moves = Arrays.copyOf(moves, 2 * moves.length);
+    }
+    moves[3 * size] = op;
+    moves[3 * size + 1] = row;
+    moves[3 * size + 2] = col;
+    size += 1;
+    return this;
+  }
+
+  /**
+   * The number of moves in this batch.
+   */
+  int size() {
+    return size;
+  }
+
+  int op(int i) {
+    return moves[3 * i];
+  }
+
+  int row(int i) {
+    return moves[3 * i + 1];
+  }
+
+  int col(int i) {
+    return moves[3 * i + 2];
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.util.Arrays;
+
+/**
+ * The aggregated changes resulting from applying a {@link MoveBatch} on a
+ * {@link MinesBoard}. Cells are identified by their index on the board, i.e.
+ * {@code row * columns + col}.
+ * <ul>
+ * <li>opened cells, in opening order, with their values.</li>
+ * <li>flag changes, in order, each either flagging or unflagging a cell.</li>
+ * <li>the state of the game after the batch.</li>
+ * </ul>
+ */
+final class MoveDelta {
+
+  private final int[] opened;
+  private final int[] values;
+  private final int[] flagChanges;
+  private final boolean[] flagged;
+  private final boolean ended, exploded;
+
+  private MoveDelta(Builder builder, boolean ended, boolean exploded) {
+    this.opened = Arrays.copyOf(builder.opened, builder.openedSize);
+    this.values = Arrays.copyOf(builder.values, builder.openedSize);
+    this.flagChanges = Arrays.copyOf(builder.flagChanges, builder.flagSize);
+    this.flagged = Arrays.copyOf(builder.flagged, builder.flagSize);
+    this.ended = ended;
+    this.exploded = exploded;
+  }
+
+  /**
+   * The indexes of the opened cells.
+   */
+  int[] opened() {
+    return opened;
+  }
+
+  /**
+   * The values of the opened cells, in the same order as {@link #opened}.
+   */
+  int[] values() {
+    return values;
+  }
+
+  /**
+   * The indexes of the cells whose flag changed.
+   */
+  int[] flagChanges() {
+    return flagChanges;
+  }
+
+  /**
+   * Whether the flag change at the specified position flagged, or unflagged, the cell.
+   */
+  boolean flagged(int i) {
+    return flagged[i];
+  }
+
+  /**
+   * Whether the game has ended.
+   */
+  boolean ended() {
+    return ended;
+  }
+
+  /**
+   * Whether the game has been lost, i.e. a mine has been triggered.
+   */
+  boolean exploded() {
+    return exploded;
+  }
+
+  /**
+   * Whether the game has been won.
+   */
+  boolean won() {
+    return ended && !exploded;
+  }
+
+  /**
+   * Accumulates the changes while a batch is being applied.
+   */
+  static final class Builder {
+    private int[] opened = new int[16];
+    private int[] values = new int[16];
+    private int openedSize;
+
+    private int[] flagChanges = new int[8];
+    private boolean[] flagged = new boolean[8];
+    private int flagSize;
+
+    void opened(int index, int value) {
+      if (openedSize == opened.length) {
+        opened = Arrays.copyOf(opened, 2 * openedSize);
+        values = Arrays.copyOf(values, 2 * openedSize);
+      }
+      opened[openedSize] = index;
+      values[openedSize] = value;
+      openedSize += 1;
+    }
+
+    void flagged(int index, boolean flag) {
+      if (flagSize == flagChanges.length) {
+        flagChanges = Arrays.copyOf(flagChanges, 2 * flagSize);
+        flagged = Arrays.copyOf(flagged, 2 * flagSize);
+      }
+      flagChanges[flagSize] = index;
+      flagged[flagSize] = flag;
+      flagSize += 1;
+    }
+
+    MoveDelta build(boolean ended, boolean exploded) {
+      return new MoveDelta(this, ended, exploded);
+    }
+  }
+}
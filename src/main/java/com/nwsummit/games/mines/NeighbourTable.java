@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The precomputed neighbours of all the cells of a board, in compressed sparse rows
+ * (CSR) form: the neighbours of cell {@code i} are
+ * {@code neighbours[offsets[i]] .. neighbours[offsets[i + 1] - 1]}, such that iterating
+ * them is a tight array scan:
+ * <pre>
+ *   for (int k = table.offsets[i]; k &lt; table.offsets[i + 1]; k++) {
+ *     int neighbour = table.neighbours[k];
+ *     ...
+ *   }
+ * </pre>
+ * Tables are immutable, hence shared by the boards of the same size and topology.
+ */
+final class NeighbourTable {
+
+  /**
+   * Largest number of neighbours of a table, i.e. the largest array of the VM.
+   */
+  static final long MAX_SIZE = Integer.MAX_VALUE - 8;
+
+  /**
+   * Number of ints of the tables cached, 40 MB: enough for the table of a 1000x1000 board
+   * and those of the levels being played. Larger tables aren't cached.
+   */
+  static final long CACHE_INTS = 10L << 20;
+
+  // the tables used last, by topology, rows and columns, and their total number of ints
+  private static final Map<List<Object>, NeighbourTable> CACHE =
+    new LinkedHashMap<>(16, 0.75f, true);
+  private static long cachedInts;
+
+  final int rows, columns;
+  final Topology topology;
+  final int[] offsets;
+  final int[] neighbours;
+
+  private NeighbourTable(Topology topology, int rows, int columns) {
+    this.topology = topology;
+    this.rows = rows;
+    this.columns = columns;
+
+    long size = (long) rows * columns * topology.maxNeighbours();
+    if (size > MAX_SIZE) {
+      throw new IllegalArgumentException(String.format("Board too large: %dx%d", rows, columns));
+    }
+    int cells = rows * columns;
+    offsets = new int[cells + 1];
+    int[] table = new int[(int) size];
+    int[] cellNeighbours = new int[topology.maxNeighbours()];
+    int n = 0;
+    for (int r = 0; r < rows; r++) {
+      for (int c = 0; c < columns; c++) {
+        int count = topology.neighbours(rows, columns, r, c, cellNeighbours);
+        System.arraycopy(cellNeighbours, 0, table, n, count);
+        n += count;
+        offsets[r * columns + c + 1] = n;
+      }
+    }
+    neighbours = (n == table.length) ? table : Arrays.copyOf(table, n);
+  }
+
+  /**
+   * Returns the neighbour table of the boards of the specified size and topology.
+   *
+   * @throws IllegalArgumentException if the board has more than {@link #MAX_SIZE}
+   *   neighbours.
+   */
+  static NeighbourTable of(Topology topology, int rows, int columns) {
+    List<Object> key = List.of(topology, rows, columns);
+    synchronized (CACHE) {
+      NeighbourTable table = CACHE.get(key);
+      if (table != null) {
+        return table;
+      }
+    }
+    // built without holding the lock, at worst twice by concurrent boards
+    NeighbourTable table = new NeighbourTable(topology, rows, columns);
+    if (table.ints() > CACHE_INTS) {
+      return table;
+    }
+    synchronized (CACHE) {
+      NeighbourTable cached = CACHE.putIfAbsent(key, table);
+      if (cached != null) {
+        return cached;
+      }
+      cachedInts += table.ints();
+      // the tables used least recently evicted
+      Iterator<NeighbourTable> tables = CACHE.values().iterator();
+      while (cachedInts > CACHE_INTS && tables.hasNext()) {
+        cachedInts -= tables.next().ints();
+        tables.remove();
+      }
+      return table;
+    }
+  }
+
+  /**
+   * Whether the table of the specified boards is cached; for testing.
+   */
+  static boolean isCached(Topology topology, int rows, int columns) {
+    synchronized (CACHE) {
+      return CACHE.containsKey(List.of(topology, rows, columns));
+    }
+  }
+
+  // the number of ints of the table
+  private long ints() {
+    return offsets.length + neighbours.length;
+  }
+
+  /**
+   * The number of neighbours of the specified cell.
+   */
+  int degree(int index) {
+    return offsets[index + 1] - offsets[index];
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+/**
+ * Startup milestones, in milliseconds since the JVM started, e.g. time to first frame and
+ * time to interactive.
+ */
+class StartupMetrics {
+
+  private final List<String> milestones = new ArrayList<>();
+  private final List<Long> times = new ArrayList<>();
+
+  /**
+   * Records the specified milestone now.
+   */
+  void mark(String milestone) {
+    milestones.add(milestone);
+    times.add(ManagementFactory.getRuntimeMXBean().getUptime());
+  }
+
+  /**
+   * Records the specified milestone on the next pulse of the scene, i.e. when the scene
+   * is next laid out for rendering, then runs the specified action. To be called on the FX
+   * thread.
+   */
+  void markOnNextPulse(Scene scene, String milestone, Runnable then) {
+    Runnable[] listener = new Runnable[1];
+    listener[0] = () -> {
+      if (timeOf(milestone) >= 0) {
+        return; // already marked, on a previous pulse
+      }
+      mark(milestone);
+      // not removed while the listeners are being called
+      Platform.runLater(() -> scene.removePostLayoutPulseListener(listener[0]));
+      then.run();
+    };
+    scene.addPostLayoutPulseListener(listener[0]);
+    Platform.requestNextPulse();
+  }
+
+  /**
+   * The time of the specified milestone, or -1 if not recorded.
+   */
+  long timeOf(String milestone) {
+    int i = milestones.indexOf(milestone);
+    return (i < 0) ? -1 : times.get(i);
+  }
+
+  /**
+   * Prints the milestones, one per line.
+   */
+  void report(PrintStream out) {
+    for (int i = 0; i < milestones.size(); i++) {
+      out.printf("%-16s %6d ms%n", milestones.get(i), times.get(i));
+    }
+  }
+}
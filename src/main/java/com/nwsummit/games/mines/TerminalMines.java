@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A text-mode minesweeper game, for playing in a terminal, e.g. over SSH.
+ * <p>
+ * The game level (e.g. 16x30:99) can be given as argument. Keys:
+ * <ul>
+ * <li>arrows or h/j/k/l: move the cursor</li>
+ * <li>space or enter: open the cell (or its neighbours when fully flagged)</li>
+ * <li>f: flag/unflag the cell</li>
+ * <li>n: new game</li>
+ * <li>q: quit</li>
+ * </ul>
+ * Keys already typed are all handled before the board is redrawn, so a slow terminal
+ * doesn't lag behind.
+ */
+public class TerminalMines {
+
+  private final Level level;
+  private final InputStream in;
+  private final OutputStream out;
+
+  private MinesBoard board;
+  private AnsiRenderer renderer;
+  private int cursor;
+  private int flags;
+
+  TerminalMines(Level level, InputStream in, OutputStream out) {
+    this.level = level;
+    this.in = in;
+    this.out = out;
+  }
+
+  /**
+   * Plays games until the player quits.
+   */
+  void play() throws IOException {
+    newGame();
+    renderer.flush();
+    int key;
+    while ((key = in.read()) != -1) {
+      do {
+        if (!handle(key)) {
+          renderer.moveBelow();
+          renderer.flush();
+          return;
+        }
+      } while (in.available() > 0 && (key = in.read()) != -1);
+      drawStatus();
+      renderer.flush();
+    }
+  }
+
+  private void newGame() {
+    board = level.newBoard();
+    renderer = new AnsiRenderer(board, out);
+    cursor = 0;
+    flags = 0;
+    renderer.drawAll(cursor);
+    drawStatus();
+  }
+
+  /**
+   * Handles the specified key.
+   *
+   * @return false if the player quits.
+   */
+  private boolean handle(int key) throws IOException {
+    int row = cursor / board.columns(), col = cursor % board.columns();
+    switch (key) {
+      case 'q':
+        return false;
+      case 'n':
+        newGame();
+        break;
+      case 'h':
+        moveCursor(row, col - 1);
+        break;
+      case 'l':
+        moveCursor(row, col + 1);
+        break;
+      case 'k':
+        moveCursor(row - 1, col);
+        break;
+      case 'j':
+        moveCursor(row + 1, col);
+        break;
+      case 0x1b: // arrows: ESC [ A/B/C/D
+        if (in.read() == '[') {
+          switch (in.read()) {
+            case 'A': moveCursor(row - 1, col); break;
+            case 'B': moveCursor(row + 1, col); break;
+            case 'C': moveCursor(row, col + 1); break;
+            case 'D': moveCursor(row, col - 1); break;
+            default: break;
+          }
+        }
+        break;
+      case ' ':
+      case '\r':
+      case '\n':
+        apply(new MoveBatch(1).open(row, col));
+        break;
+      case 'f':
+        apply(new MoveBatch(1).flag(row, col));
+        break;
+      default:
+        break;
+    }
+    return true;
+  }
+
+  private void moveCursor(int row, int col) {
+    row = Math.max(0, Math.min(row, board.rows() - 1));
+    col = Math.max(0, Math.min(col, board.columns() - 1));
+    renderer.drawCell(cursor, false);
+    cursor = row * board.columns() + col;
+    renderer.drawCell(cursor, true);
+  }
+
+  /**
+   * Applies the move and redraws the changed cells only.
+   */
+  private void apply(MoveBatch move) {
+    if (board.ended()) {
+      return;
+    }
+    MoveDelta delta = board.apply(move);
+    for (int index: delta.opened()) {
+      renderer.drawCell(index, index == cursor);
+    }
+    for (int i = 0; i < delta.flagChanges().length; i++) {
+      flags += delta.flagged(i) ? 1 : -1;
+      renderer.drawCell(delta.flagChanges()[i], delta.flagChanges()[i] == cursor);
+    }
+    if (delta.ended()) {
+      // reveal the mines and the wrong flags
+      for (MinesBoard.Cell cell: board.getHiddenMines()) {
+        renderer.drawCell(cell.index(), cell.index() == cursor);
+      }
+      for (MinesBoard.Cell cell: board.getWronglyFlaggedCells()) {
+        renderer.drawCell(cell.index(), cell.index() == cursor);
+      }
+    }
+  }
+
+  /**
+   * Checks the board of the specified level fits in a terminal of the specified size, the
+   * board starting on the third row with two columns per cell.
+   *
+   * @throws IllegalArgumentException if the board doesn't fit.
+   */
+  static void checkFits(Level level, int terminalRows, int terminalColumns) {
+    if (level.rows() + 2 > terminalRows || 2 * level.columns() > terminalColumns) {
+      throw new IllegalArgumentException(
+        String.format("Board %dx%d doesn't fit in a %dx%d terminal",
+                      level.rows(), level.columns(), terminalRows, terminalColumns));
+    }
+  }
+
+  private void drawStatus() {
+    String state = !board.ended() ? "" : board.exploded() ? "  Boom!" : "  You win!";
+    renderer.drawStatus(String.format("Mines %s  Flags %d/%d%s   [f]lag [n]ew [q]uit",
+                                      level, flags, board.mines(), state));
+  }
+
+  /**
+   * Runs the given shell command on the terminal, e.g. stty.
+   */
+  private static String tty(String command) throws IOException, InterruptedException {
+    Process process = new ProcessBuilder("sh", "-c", command + " < /dev/tty").start();
+    String output = new String(process.getInputStream().readAllBytes()).trim();
+    process.waitFor();
+    return output;
+  }
+
+  public static void main(String... args) throws Exception {
+    Level level = (args.length > 0) ? Level.parse(args[0]) : Level.INTERMEDIATE;
+    String[] size = tty("stty size").split(" "); // rows columns
+    if (size.length == 2) {
+      checkFits(level, Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+    }
+    OutputStream out = new FileOutputStream(FileDescriptor.out);
+
+    // unbuffered input without echo, restored on exit
+    String settings = tty("stty -g");
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        try {
+          tty("stty " + settings);
+          out.write("\u001b[?25h\n".getBytes());
+          out.flush();
+        } catch (Exception e) {
+          // best effort
+        }
+      }));
+    tty("stty -icanon -echo min 1");
+    out.write("\u001b[?25l".getBytes()); // hide the terminal cursor
+
+    new TerminalMines(level, System.in, out).play();
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * A hashed timing wheel, running many timeouts from a single thread. Time is cut in ticks,
+ * and the wheel has a bucket per tick of a rotation; a timeout is put in the bucket of its
+ * deadline tick, with the number of rotations to wait before it's due. Each tick, only the
+ * bucket of the tick is visited.
+ * <p>
+ * Scheduling and cancelling are O(1), from any thread: new timeouts are queued until the
+ * next tick, when they're put in their bucket; cancelled ones are flagged, and unlinked
+ * from their bucket at the next tick. Buckets are only ever touched by the thread
+ * advancing the wheel.
+ * <p>
+ * Timeouts are run on the wheel's thread, so they're expected to be short, e.g. to hand
+ * over to another executor. They run at most a tick late, give or take the thread
+ * scheduling. A timeout failing is reported to the thread's uncaught exception handler,
+ * and the wheel keeps running; other errors, e.g. out of memory, stop the wheel.
+ */
+final class TimingWheel {
+
+  private final long tickNanos;
+  private final Timeout[] buckets;
+  private final int mask;
+  private final LongSupplier clock;
+  private final long startNanos;
+
+  // timeouts scheduled or cancelled since the last tick
+  private final ConcurrentLinkedQueue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+  private final ConcurrentLinkedQueue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+
+  /**
+   * The next tick to run, since the wheel was created.
+   */
+  private long tick;
+
+  private volatile Thread worker;
+  private volatile boolean shutdown;
+
+  /**
+   * Creates a wheel of the specified tick duration and number of ticks per rotation, on the
+   * {@link System#nanoTime} clock. The wheel isn't running until {@link #start}ed.
+   */
+  TimingWheel(long tick, TimeUnit unit, int ticksPerWheel) {
+    this(unit.toNanos(tick), ticksPerWheel, System::nanoTime);
+  }
+
+  /**
+   * Creates a wheel of the specified tick duration and number of ticks per rotation, on the
+   * specified clock of nanoseconds.
+   */
+  // visible for testing
+  TimingWheel(long tickNanos, int ticksPerWheel, LongSupplier clock) {
+    if (tickNanos <= 0) {
+      throw new IllegalArgumentException("Invalid tick: " + tickNanos);
+    }
+    if (ticksPerWheel <= 0 || Integer.bitCount(ticksPerWheel) != 1) {
+      throw new IllegalArgumentException("Ticks per wheel must be a power of 2: "
+                                         + ticksPerWheel);
+    }
+    this.tickNanos = tickNanos;
+    this.buckets = new Timeout[ticksPerWheel];
+    this.mask = ticksPerWheel - 1;
+    this.clock = clock;
+    this.startNanos = clock.getAsLong();
+  }
+
+  /**
+   * Starts the thread advancing the wheel, a daemon thread of the specified name.
+   */
+  synchronized void start(String name) {
+    if (worker != null) {
+      throw new IllegalStateException("Already started");
+    }
+    Thread thread = new Thread(this::run, name);
+    thread.setDaemon(true);
+    worker = thread;
+    thread.start();
+  }
+
+  /**
+   * Stops the thread advancing the wheel; the pending timeouts never run.
+   */
+  void shutdown() {
+    shutdown = true;
+    Thread thread = worker;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  private void run() {
+    while (!shutdown) {
+      long wait = startNanos + tick * tickNanos - clock.getAsLong();
+      if (wait > 0) {
+        LockSupport.parkNanos(this, wait);
+      } else {
+        advance();
+      }
+    }
+  }
+
+  /**
+   * The current time of the wheel's clock, in nanoseconds.
+   */
+  long nanoTime() {
+    return clock.getAsLong();
+  }
+
+  /**
+   * Schedules the specified task to run once, after the specified delay.
+   */
+  Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+    Timeout timeout = new Timeout(task, clock.getAsLong() + unit.toNanos(delay));
+    scheduled.add(timeout);
+    return timeout;
+  }
+
+  /**
+   * Runs the ticks due by now, i.e. the timeouts expired. Called by the wheel's thread, or
+   * by tests driving the clock; not from several threads at once.
+   *
+   * @return the number of timeouts run.
+   */
+  int advance() {
+    long now = Math.floorDiv(clock.getAsLong() - startNanos, tickNanos);
+    int expired = 0;
+    while (tick <= now) {
+      for (Timeout timeout = scheduled.poll(); timeout != null; timeout = scheduled.poll()) {
+        if (timeout.state.get() == Timeout.PENDING) {
+          add(timeout);
+        }
+      }
+      for (Timeout timeout = cancelled.poll(); timeout != null; timeout = cancelled.poll()) {
+        remove(timeout);
+      }
+      expired += expire((int) (tick & mask));
+      tick++;
+    }
+    return expired;
+  }
+
+  private void add(Timeout timeout) {
+    // the deadline's tick, rounded up not to run early, or this tick if already past
+    long deadline = Math.max(tick, -Math.floorDiv(startNanos - timeout.deadline, tickNanos));
+    timeout.rounds = (deadline - tick) / buckets.length;
+    int bucket = (int) (deadline & mask);
+    timeout.bucket = bucket;
+    timeout.next = buckets[bucket];
+    if (buckets[bucket] != null) {
+      buckets[bucket].prev = timeout;
+    }
+    buckets[bucket] = timeout;
+  }
+
+  private void remove(Timeout timeout) {
+    if (timeout.bucket < 0) {
+      return; // cancelled before being added, or already removed
+    }
+    if (timeout.prev != null) {
+      timeout.prev.next = timeout.next;
+    } else {
+      buckets[timeout.bucket] = timeout.next;
+    }
+    if (timeout.next != null) {
+      timeout.next.prev = timeout.prev;
+    }
+    timeout.prev = timeout.next = null;
+    timeout.bucket = -1;
+  }
+
+  private int expire(int bucket) {
+    int expired = 0;
+    Timeout timeout = buckets[bucket];
+    while (timeout != null) {
+      Timeout next = timeout.next;
+      if (timeout.rounds > 0) {
+        timeout.rounds -= 1;
+      } else {
+        remove(timeout);
+        if (timeout.state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED)) {
+          expired += 1;
+          try {
+            timeout.task.run();
+          } catch (Exception | AssertionError e) {
+            // reported as if uncaught, but the wheel's thread keeps running the others
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+          }
+        }
+      }
+      timeout = next;
+    }
+    return expired;
+  }
+
+  /**
+   * A task scheduled to run once, unless cancelled.
+   */
+  final class Timeout {
+    private static final int PENDING = 0, EXPIRED = 1, CANCELLED = 2;
+
+    private final Runnable task;
+    private final long deadline;
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+
+    // the wheel's thread only
+    private long rounds;
+    private int bucket = -1;
+    private Timeout prev, next;
+
+    private Timeout(Runnable task, long deadline) {
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    /**
+     * Cancels this timeout, if it hasn't run yet.
+     *
+     * @return whether it was cancelled, i.e. it won't run.
+     */
+    boolean cancel() {
+      if (!state.compareAndSet(PENDING, CANCELLED)) {
+        return false;
+      }
+      cancelled.add(this);
+      return true;
+    }
+
+    boolean isCancelled() {
+      return state.get() == CANCELLED;
+    }
+
+    boolean isExpired() {
+      return state.get() == EXPIRED;
+    }
+  }
+}
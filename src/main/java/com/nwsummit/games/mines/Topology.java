@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.util.Arrays;
+
+/**
+ * The topology of a mines board, i.e. which cells are adjascent to each other. Cells are
+ * identified by their index, i.e. {@code row * columns + col}.
+ * <p>
+ * A board doesn't query its topology while playing: the adjascent cells of all the cells
+ * are precomputed into a {@link NeighbourTable} when the board is created.
+ */
+interface Topology {
+
+  /**
+   * The classic grid, where a cell has up to 8 neighbours.
+   */
+  Topology CLASSIC = new Classic();
+
+  /**
+   * The grid wrapping around its edges, where every cell has 8 neighbours.
+   */
+  Topology TORUS = new Torus();
+
+  /**
+   * The hexagonal grid, with odd rows shifted right by half a cell, where a cell has up
+   * to 6 neighbours.
+   */
+  Topology HEX = new Hex();
+
+  /**
+   * The maximum number of neighbours of a cell.
+   */
+  int maxNeighbours();
+
+  /**
+   * Writes the indexes of the cells adjascent to the cell at (row, col) into the specified
+   * array, in increasing order, and returns their number.
+   */
+  int neighbours(int rows, int columns, int row, int col, int[] into);
+
+  final class Classic implements Topology {
+    private Classic() {}
+
+    @Override
+    public int maxNeighbours() {
+      return 8;
+    }
+
+    @Override
+    public int neighbours(int rows, int columns, int row, int col, int[] into) {
+      int n = 0;
+      int rmax = Math.min(row + 1, rows - 1);
+      int cmax = Math.min(col + 1, columns - 1);
+      for (int r = Math.max(row - 1, 0); r <= rmax; r++) {
+        for (int c = Math.max(col - 1, 0); c <= cmax; c++) {
+          if (r != row || c != col) {
+            into[n++] = r * columns + c;
+          }
+        }
+      }
+      return n;
+    }
+
+    @Override
+    public String toString() {
+      return "classic";
+    }
+  }
+
+  final class Torus implements Topology {
+    private Torus() {}
+
+    @Override
+    public int maxNeighbours() {
+      return 8;
+    }
+
+    @Override
+    public int neighbours(int rows, int columns, int row, int col, int[] into) {
+      int n = 0;
+      for (int dr = -1; dr <= 1; dr++) {
+        for (int dc = -1; dc <= 1; dc++) {
+          if (dr != 0 || dc != 0) {
+            int r = Math.floorMod(row + dr, rows);
+            int c = Math.floorMod(col + dc, columns);
+            into[n++] = r * columns + c;
+          }
+        }
+      }
+      Arrays.sort(into, 0, n);
+      return n;
+    }
+
+    @Override
+    public String toString() {
+      return "torus";
+    }
+  }
+
+  final class Hex implements Topology {
+    private Hex() {}
+
+    @Override
+    public int maxNeighbours() {
+      return 6;
+    }
+
+    @Override
+    public int neighbours(int rows, int columns, int row, int col, int[] into) {
+      int n = 0;
+      // the adjascent cells above and below are at col-1 and col on even rows, at col and
+      // col+1 on odd rows
+      int left = (row % 2 == 0) ? col - 1 : col;
+      if (row > 0) {
+        n = add(rows, columns, row - 1, left, left + 1, into, n);
+      }
+      n = add(rows, columns, row, col - 1, col - 1, into, n);
+      n = add(rows, columns, row, col + 1, col + 1, into, n);
+      if (row < rows - 1) {
+        n = add(rows, columns, row + 1, left, left + 1, into, n);
+      }
+      return n;
+    }
+
+    // adds the cells of the row from cmin to cmax that are on the board
+    private int add(int rows, int columns, int row, int cmin, int cmax, int[] into, int n) {
+      for (int c = Math.max(cmin, 0); c <= Math.min(cmax, columns - 1); c++) {
+        into[n++] = row * columns + c;
+      }
+      return n;
+    }
+
+    @Override
+    public String toString() {
+      return "hex";
+    }
+  }
+}
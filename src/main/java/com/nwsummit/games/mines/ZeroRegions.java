@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import java.util.Arrays;
+
+/**
+ * The zero regions of a board, i.e. the connected groups of cells with no adjascent mines,
+ * each with its border of numbered cells. Opening any cell of no adjascent mines opens its
+ * whole region, when none of the region is open or flagged yet.
+ * <p>
+ * Regions are labeled once the mines are placed, with a union-find over the cells of no
+ * adjascent mines. The cells of each region are stored in compressed sparse rows (CSR)
+ * form, as sorted ranges of cell indexes: the cells of region {@code r} are the cells
+ * {@code runStarts[k] .. runEnds[k] - 1}, for {@code k} in
+ * {@code runOffsets[r] .. runOffsets[r + 1] - 1}. Regions typically span a few ranges per
+ * board row.
+ * <p>
+ * Labeling takes a couple of arrays of the size of the board, so boards of more than
+ * {@link #MAX_CELLS} cells don't open their cascades by region. The ranges are then
+ * collected in two linear passes over the cells, with no sorting.
+ */
+final class ZeroRegions {
+
+  /**
+   * The largest boards whose regions are labeled for opening them.
+   */
+  static final int MAX_CELLS = 1 << 22;
+
+  /**
+   * The region of each cell of no adjascent mines, by cell index; -1 for the other cells.
+   * A border cell may be in several regions, hence isn't labeled.
+   */
+  private final int[] regionOf;
+
+  private final int[] sizes;
+
+  final int[] runOffsets;
+  final int[] runStarts;
+  final int[] runEnds;
+
+  private ZeroRegions(int[] regionOf, int[] sizes, int[] runOffsets, int[] runStarts,
+                      int[] runEnds) {
+    this.regionOf = regionOf;
+    this.sizes = sizes;
+    this.runOffsets = runOffsets;
+    this.runStarts = runStarts;
+    this.runEnds = runEnds;
+  }
+
+  /**
+   * Labels the zero regions of the specified board, whose mines are placed.
+   */
+  static ZeroRegions label(MinesBoard board) {
+    NeighbourTable table = board.neighbourTable();
+    int cells = board.rows() * board.columns();
+    boolean[] zero = new boolean[cells];
+    for (int i = 0; i < cells; i++) {
+      zero[i] = board.get(i).value() == 0;
+    }
+
+    // union-find of the adjascent zero cells; the root of a region is its first cell, so
+    // the parent of a cell is always before it
+    int[] parent = new int[cells];
+    for (int i = 0; i < cells; i++) {
+      parent[i] = i;
+    }
+    for (int i = 0; i < cells; i++) {
+      if (!zero[i]) {
+        continue;
+      }
+      for (int k = table.offsets[i]; k < table.offsets[i + 1]; k++) {
+        int j = table.neighbours[k];
+        if (zero[j]) {
+          int a = find(parent, i), b = find(parent, j);
+          if (a != b) {
+            parent[Math.max(a, b)] = Math.min(a, b);
+          }
+        }
+      }
+    }
+
+    // regions numbered by their first cell, in place of the parents: the parent of a cell
+    // is numbered before the cell, with the region of the cell
+    int[] regionOf = parent;
+    int regions = 0;
+    for (int i = 0; i < cells; i++) {
+      if (!zero[i]) {
+        regionOf[i] = -1;
+        continue;
+      }
+      regionOf[i] = (parent[i] == i) ? regions++ : regionOf[parent[i]];
+    }
+    // the ranges of each region, going over the cells in index order so that the cells of
+    // a region come sorted: a first pass counts the ranges, a second one fills them in
+    int[] lastEnds = new int[regions];
+    int[] sizes = new int[regions];
+    int[] runOffsets = new int[regions + 1];
+    addRuns(table, zero, regionOf, lastEnds, sizes, runOffsets, null, null, null);
+    for (int r = 0; r < regions; r++) {
+      runOffsets[r + 1] += runOffsets[r];
+    }
+    int[] runStarts = new int[runOffsets[regions]];
+    int[] runEnds = new int[runStarts.length];
+    int[] fill = Arrays.copyOf(runOffsets, regions);
+    addRuns(table, zero, regionOf, lastEnds, null, null, fill, runStarts, runEnds);
+    return new ZeroRegions(regionOf, sizes, runOffsets, runStarts, runEnds);
+  }
+
+  /**
+   * Adds each cell, in index order, to the ranges of its regions: a zero cell is in its
+   * own region, a border cell in the regions of its adjascent zero cells. The end of the
+   * last range of each region marks the cells already added, e.g. a border cell adjascent
+   * to several cells of the region. Without {@code fill}, only counts the cells and the
+   * ranges of each region, in {@code sizes} and {@code counts[r + 1]}.
+   */
+  private static void addRuns(NeighbourTable table, boolean[] zero, int[] regionOf,
+                              int[] lastEnds, int[] sizes, int[] counts, int[] fill,
+                              int[] runStarts, int[] runEnds) {
+    Arrays.fill(lastEnds, -1);
+    for (int i = 0; i < zero.length; i++) {
+      if (zero[i]) {
+        addRun(regionOf[i], i, lastEnds, sizes, counts, fill, runStarts, runEnds);
+        continue;
+      }
+      for (int k = table.offsets[i]; k < table.offsets[i + 1]; k++) {
+        int j = table.neighbours[k];
+        if (zero[j]) {
+          addRun(regionOf[j], i, lastEnds, sizes, counts, fill, runStarts, runEnds);
+        }
+      }
+    }
+  }
+
+  private static void addRun(int r, int i, int[] lastEnds, int[] sizes, int[] counts,
+                             int[] fill, int[] runStarts, int[] runEnds) {
+    if (lastEnds[r] == i + 1) {
+      return; // already added
+    }
+    if (fill == null) {
+      sizes[r] += 1;
+      if (lastEnds[r] != i) {
+        counts[r + 1] += 1;
+      }
+    } else if (lastEnds[r] == i) {
+      runEnds[fill[r] - 1] = i + 1;
+    } else {
+      runStarts[fill[r]] = i;
+      runEnds[fill[r]++] = i + 1;
+    }
+    lastEnds[r] = i + 1;
+  }
+
+  private static int find(int[] parent, int i) {
+    while (parent[i] != i) {
+      parent[i] = parent[parent[i]]; // path halving
+      i = parent[i];
+    }
+    return i;
+  }
+
+  /**
+   * The number of regions.
+   */
+  int count() {
+    return sizes.length;
+  }
+
+  /**
+   * The region of the cell of the specified index, if it has no adjascent mines; -1
+   * otherwise.
+   */
+  int regionOf(int index) {
+    return regionOf[index];
+  }
+
+  /**
+   * The number of cells of the specified region, including its border.
+   */
+  int size(int region) {
+    return sizes[region];
+  }
+}
@@ -1,6 +1,7 @@
 module games.mines {
   requires javafx.controls;
   requires javafx.fxml;
+  requires java.management;
 
   // for fxml to create MinesPane
   opens com.nwsummit.games.mines to javafx.fxml;
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class BoardAnalyticsTest {
+
+  /*
+    The testing mines board looks like the below, with 2 openings and 6 isolated cells:
+    (0,4) (1,3) (1,4) (2,0) (2,2) and (2,4)
+    (0,0)      columns
+      +----------->
+      |  0 0 1 M 1
+    r |  1 1 2 2 2
+    o |  1 M 2 M 1
+    w |  1 1 2 1 1
+    s v  0 0 0 0 0
+  */
+  private MinesBoard testingBoard() {
+    MinesBoard board = new MinesBoard(5, 5);
+    board.placeMine(0, 3);
+    board.placeMine(2, 1);
+    board.placeMine(2, 3);
+    return board;
+  }
+
+  @Test
+  public void testMetrics() {
+    BoardAnalytics analytics = BoardAnalytics.of(testingBoard());
+    assertEquals(analytics.openings(), 2);
+    assertEquals(analytics.isolated(), 6);
+    assertEquals(analytics.bbbv(), 8);
+    assertEquals(analytics.mineClusters(), 3);
+    assertEquals(analytics.largestMineCluster(), 1);
+    assertEquals(analytics.bbbvPerSecond(4000), 2.0);
+  }
+
+  @Test
+  public void testMineClusters() {
+    MinesBoard board = testingBoard();
+    board.placeMine(1, 3); // joins (0,3) and (2,3)
+    BoardAnalytics analytics = BoardAnalytics.of(board);
+    assertEquals(analytics.mineClusters(), 2);
+    assertEquals(analytics.largestMineCluster(), 3);
+  }
+
+  @Test
+  public void testBbbv_IsClicksToClear() {
+    // clearing the board by opening each opening, then each remaining numbered cell,
+    // takes exactly 3BV clicks
+    for (long seed = 0; seed < 10; seed++) {
+      MinesBoard board = new MinesBoard(16, 30, 99, Topology.CLASSIC, seed);
+      board.placeMines(8, 15);
+      BoardAnalytics analytics = BoardAnalytics.of(board);
+      assertEquals(analytics.openings(), board.zeroRegions().count());
+
+      int clicks = 0;
+      for (int pass = 0; pass < 2; pass++) {
+        for (MinesBoard.Cell cell: board) {
+          boolean zero = cell.value() == 0;
+          if (cell.isUnopen() && !cell.isMine() && (pass == 1 || zero)) {
+            board.open(cell.row(), cell.col());
+            clicks += 1;
+          }
+        }
+      }
+      assertTrue(board.ended() && !board.exploded());
+      assertEquals(clicks, analytics.bbbv(), "Seed " + seed);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.annotations.Test;
+
+public class BoardEventRingTest {
+
+  /**
+   * Records the events as "type:index:value" strings.
+   */
+  private static class Recorder implements BoardEventRing.Handler {
+    final List<String> events = new ArrayList<>();
+    long missed;
+
+    @Override
+    public void onEvent(int type, int index, int value) {
+      events.add(type + ":" + index + ":" + value);
+    }
+
+    @Override
+    public void onMissed(long count) {
+      missed += count;
+    }
+  }
+
+  @Test
+  public void testCapacity() {
+    assertEquals(new BoardEventRing(1000).capacity(), 1024);
+    assertEquals(new BoardEventRing(64).capacity(), 64);
+  }
+
+  @Test
+  public void testBoardEvents() {
+    MinesBoard board = new MinesBoard(3, 3);
+    board.placeMine(0, 0);
+    BoardEventRing ring = new BoardEventRing(16);
+    board.publishTo(ring);
+    BoardEventRing.Cursor ui = ring.cursor();
+    BoardEventRing.Cursor recorder = ring.cursor();
+
+    board.flag(0, 0);
+    board.flag(1, 1);
+    board.flag(1, 1);
+    board.open(2, 2);
+
+    Recorder uiEvents = new Recorder();
+    assertEquals(ui.poll(uiEvents, 3), 3, "Up to max events");
+    assertEquals(uiEvents.events, List.of("1:0:0", "1:4:0", "2:4:0"));
+    assertEquals(ui.poll(uiEvents, 100), 9, "8 opened + won");
+    assertEquals(uiEvents.events.get(3), "0:8:0", "Opened (2,2)");
+    assertEquals(uiEvents.events.get(11), "4:-1:0", "Won");
+
+    Recorder recorded = new Recorder();
+    assertEquals(recorder.poll(recorded, 100), 12, "Each cursor reads at its own pace");
+    assertEquals(recorded.events, uiEvents.events);
+
+    board.open(2, 2); // open and fully flagged, on a won board
+    assertEquals(ui.poll(uiEvents, 100), 0, "Won once");
+  }
+
+  @Test
+  public void testExploded() {
+    MinesBoard board = new MinesBoard(3, 3);
+    board.placeMine(0, 0);
+    board.placeMine(2, 2);
+    BoardEventRing ring = new BoardEventRing(8);
+    board.publishTo(ring);
+    BoardEventRing.Cursor cursor = ring.cursor();
+
+    board.open(2, 2);
+    Recorder recorder = new Recorder();
+    cursor.poll(recorder, 10);
+    assertEquals(recorder.events, List.of("0:8:-1", "3:8:-1"));
+  }
+
+  @Test
+  public void testSlowConsumerMisses() {
+    BoardEventRing ring = new BoardEventRing(4);
+    BoardEventRing.Cursor cursor = ring.cursor();
+    for (int i = 0; i < 10; i++) {
+      ring.publish(BoardEventRing.OPENED, i, 0);
+    }
+    assertEquals(cursor.lag(), 10);
+
+    Recorder recorder = new Recorder();
+    assertEquals(cursor.poll(recorder, 100), 4);
+    assertEquals(recorder.missed, 6);
+    assertEquals(recorder.events, List.of("0:6:0", "0:7:0", "0:8:0", "0:9:0"));
+  }
+
+  @Test
+  public void testConcurrentConsumers() throws Exception {
+    BoardEventRing ring = new BoardEventRing(1024);
+    int events = 200_000;
+    AtomicBoolean done = new AtomicBoolean();
+    List<Thread> consumers = new ArrayList<>();
+    List<long[]> results = new ArrayList<>();
+    for (int c = 0; c < 3; c++) {
+      BoardEventRing.Cursor cursor = ring.cursor();
+      long[] result = new long[3]; // handled, missed, out of order
+      results.add(result);
+      Thread thread = new Thread(() -> {
+          long[] last = {-1};
+          BoardEventRing.Handler handler = new BoardEventRing.Handler() {
+              public void onEvent(int type, int index, int value) {
+                // index and value are written together, a torn read would differ
+                if (index <= last[0] || value != -index) result[2] += 1;
+                last[0] = index;
+                result[0] += 1;
+              }
+              public void onMissed(long count) {
+                result[1] += count;
+              }
+            };
+          while (!done.get() || cursor.lag() > 0) {
+            cursor.poll(handler, 64);
+          }
+        });
+      thread.start();
+      consumers.add(thread);
+    }
+
+    for (int i = 0; i < events; i++) {
+      ring.publish(BoardEventRing.OPENED, i, -i);
+    }
+    done.set(true);
+    for (Thread thread: consumers) {
+      thread.join(10_000);
+    }
+    for (long[] result: results) {
+      assertEquals(result[0] + result[1], events, "Every event handled or missed");
+      assertEquals(result[2], 0, "No torn or out of order event");
+      assertTrue(result[0] > 0);
+    }
+  }
+}
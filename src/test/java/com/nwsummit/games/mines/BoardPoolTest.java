@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.testng.annotations.Test;
+
+public class BoardPoolTest {
+
+  @Test
+  public void testLevelParse() {
+    assertEquals(Level.parse("16x30:99"), Level.EXPERT);
+    assertEquals(Level.parse("20x24:100").toString(), "20x24:100");
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testLevelParse_Invalid() {
+    Level.parse("16x16");
+  }
+
+  @Test
+  public void testTake() throws Exception {
+    BoardPool pool = new BoardPool(Level.BEGINNER);
+    try {
+      MinesBoard board1 = pool.take(Level.BEGINNER).get();
+      MinesBoard board2 = pool.take(Level.BEGINNER).get();
+      assertNotSame(board1, board2);
+      assertEquals(board1.rows(), 8);
+      assertEquals(board1.columns(), 8);
+      assertEquals(board1.mines(), 10);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testTake_Prefilled() throws Exception {
+    BoardPool pool = new BoardPool(Level.EXPERT);
+    try {
+      // wait for the pool to be filled
+      for (int i = 0; i < 100 && pool.available(Level.EXPERT) < BoardPool.CAPACITY; i++) {
+        Thread.sleep(10);
+      }
+      assertEquals(pool.available(Level.EXPERT), BoardPool.CAPACITY);
+
+      CompletableFuture<MinesBoard> future = pool.take(Level.EXPERT);
+      assertTrue(future.isDone(), "Board should be ready");
+      assertEquals(future.get().mines(), 99);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testTake_Custom() throws Exception {
+    Level custom = new Level(30, 40, 200);
+    BoardPool pool = new BoardPool();
+    try {
+      assertEquals(pool.take(custom).get().mines(), 200);
+      awaitFull(pool, custom);
+      assertTrue(pool.take(custom).isDone(), "The last custom level is pooled");
+
+      Level other = new Level(20, 20, 50);
+      assertEquals(pool.take(other).get().mines(), 50);
+      awaitFull(pool, other);
+      assertEquals(pool.available(custom), 0, "Replaced by the other custom level");
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static void awaitFull(BoardPool pool, Level level) throws InterruptedException {
+    for (int i = 0; i < 500 && pool.available(level) < BoardPool.CAPACITY; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(pool.available(level), BoardPool.CAPACITY);
+  }
+
+  @Test
+  public void testTake_Invalid() throws Exception {
+    BoardPool pool = new BoardPool();
+    try {
+      CompletableFuture<MinesBoard> future = pool.take(new Level(8, 8, 64));
+      try {
+        future.get();
+        fail("Too many mines");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof IllegalArgumentException, e.toString());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class CellStatesTest {
+
+  private static final int ALL = CellStates.MINE | CellStates.OPEN | CellStates.FLAGGED;
+
+  @DataProvider(name = "sizes")
+  private Object[][] sizes() {
+    // shorter than a word, whole words, and words with a tail
+    return new Object[][] {{1}, {7}, {8}, {64}, {67}, {1003}};
+  }
+
+  @Test
+  public void testSetClear() {
+    CellStates states = new CellStates(10);
+    states.set(3, CellStates.MINE);
+    states.set(3, CellStates.FLAGGED);
+    assertEquals(states.get(3), CellStates.MINE | CellStates.FLAGGED);
+    states.clear(3, CellStates.FLAGGED);
+    assertEquals(states.get(3), CellStates.MINE);
+    assertEquals(states.get(4), 0);
+  }
+
+  @Test(dataProvider = "sizes")
+  public void testCountNext_SameAsScalar(int size) {
+    Random random = new Random(size);
+    CellStates states = new CellStates(size);
+    int[] bits = new int[size];
+    for (int i = 0; i < size; i++) {
+      bits[i] = random.nextInt(ALL + 1);
+      states.set(i, bits[i]);
+    }
+    for (int mask = 0; mask <= ALL; mask++) {
+      for (int pattern = 0; pattern <= ALL; pattern++) {
+        if ((pattern & ~mask) != 0) {
+          continue; // never matches
+        }
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+          if ((bits[i] & mask) == pattern) {
+            count += 1;
+          }
+        }
+        assertEquals(states.count(mask, pattern), count, "mask " + mask + " pattern " + pattern);
+
+        int found = 0;
+        int expected = -1;
+        for (int i = 0; i < size; i++) {
+          if ((bits[i] & mask) == pattern) {
+            expected = i;
+            break;
+          }
+        }
+        for (int i = states.next(0, mask, pattern); i >= 0; i = states.next(i + 1, mask, pattern)) {
+          assertEquals(i, expected);
+          found += 1;
+          expected = -1;
+          for (int j = i + 1; j < size; j++) {
+            if ((bits[j] & mask) == pattern) {
+              expected = j;
+              break;
+            }
+          }
+        }
+        assertEquals(expected, -1);
+        assertEquals(found, count);
+      }
+    }
+  }
+
+  @Test
+  public void testNext_None() {
+    CellStates states = new CellStates(20);
+    assertEquals(states.next(0, CellStates.OPEN, CellStates.OPEN), -1);
+    assertEquals(states.next(20, 0, 0), -1);
+    states.set(19, CellStates.OPEN);
+    assertEquals(states.next(0, CellStates.OPEN, CellStates.OPEN), 19);
+  }
+}
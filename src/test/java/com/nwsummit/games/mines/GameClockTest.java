@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class GameClockTest {
+
+  // the wheel's clock, moved by the tests
+  private AtomicLong now;
+  private TimingWheel wheel;
+  private GameClock clocks;
+
+  private List<Long> ticks;
+  private List<GameClock.Expiry> expiries;
+
+  private final GameClock.Listener listener = new GameClock.Listener() {
+      @Override
+      public void onTick(GameClock.Session session, long elapsedMs) {
+        ticks.add(elapsedMs);
+      }
+
+      @Override
+      public void onExpired(GameClock.Session session, GameClock.Expiry expiry) {
+        expiries.add(expiry);
+      }
+    };
+
+  @BeforeMethod
+  public void setUp() {
+    now = new AtomicLong();
+    wheel = new TimingWheel(TimeUnit.MILLISECONDS.toNanos(10), 64, now::get);
+    clocks = new GameClock(wheel);
+    ticks = new ArrayList<>();
+    expiries = new ArrayList<>();
+  }
+
+  // moves the clock by steps of the specified millis, advancing the wheel
+  private void run(long millis, long step) {
+    for (long t = 0; t < millis; t += step) {
+      now.addAndGet(TimeUnit.MILLISECONDS.toNanos(step));
+      wheel.advance();
+    }
+  }
+
+  @Test
+  public void testTicks() {
+    GameClock.Session session = clocks.start(listener, 0, 0);
+    run(3500, 10);
+    assertEquals(ticks, List.of(1000L, 2000L, 3000L));
+    assertTrue(session.isRunning());
+    assertEquals(session.stop(), 3500);
+
+    run(2000, 10);
+    assertEquals(ticks.size(), 3, "No more ticks once stopped");
+    assertEquals(session.stop(), 3500, "Final time");
+  }
+
+  @Test
+  public void testTicks_LateWheel() {
+    GameClock.Session session = clocks.start(listener, 0, 0);
+    // the wheel running late, e.g. its thread not scheduled
+    run(2700, 900);
+    // the ticks are on the start's seconds, the elapsed times from the clock
+    assertEquals(ticks, List.of(1800L, 2700L));
+    run(300, 300);
+    assertEquals(ticks, List.of(1800L, 2700L, 3000L));
+    assertEquals(session.elapsedMs(), 3000);
+  }
+
+  @Test
+  public void testStop_FromTheClock() {
+    GameClock.Session session = clocks.start(listener, 0, 0);
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(2345));
+    assertEquals(session.stop(), 2345, "Not a number of ticks");
+    assertFalse(session.isRunning());
+  }
+
+  @Test
+  public void testTimeLimit() {
+    GameClock.Session session = clocks.start(listener, 2500, 0);
+    run(5000, 10);
+    assertEquals(expiries, List.of(GameClock.Expiry.TIME_LIMIT));
+    assertFalse(session.isRunning());
+    assertEquals(session.elapsedMs(), 2500);
+    assertEquals(ticks, List.of(1000L, 2000L));
+  }
+
+  @Test
+  public void testIdle() {
+    GameClock.Session session = clocks.start(listener, 0, 1500);
+    run(1000, 10);
+    session.touch();
+    run(1000, 10);
+    session.touch();
+    run(1000, 10);
+    assertTrue(session.isRunning(), "Touched within the idle timeout");
+    run(1000, 10);
+    assertEquals(expiries, List.of(GameClock.Expiry.IDLE));
+    assertEquals(session.elapsedMs(), 3500);
+  }
+
+  @Test
+  public void testManySessions() {
+    List<GameClock.Session> sessions = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      sessions.add(clocks.start(listener, 1000 + i, 0));
+    }
+    run(3000, 10);
+    assertEquals(expiries.size(), 2001, "Time limits up to 3000ms");
+    run(3000, 10);
+    assertEquals(expiries.size(), 5000);
+    for (int i = 0; i < sessions.size(); i += 500) {
+      assertFalse(sessions.get(i).isRunning());
+      assertEquals(sessions.get(i).elapsedMs(), 1000 + i, 10);
+    }
+  }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class GaussianDeductionTest {
+
+  private final GaussianDeduction deduction = new GaussianDeduction();
+
+  /*
+    The 1-2-1 pattern, the top row being unknown:
+    (0,0)      columns
+      +----------->
+    r |  0 M 0 M 0
+    o |  1 1 2 1 1
+    w v  0 0 0 0 0
+  */
+  @Test
+  public void testDeduce_121() {
+    MinesBoard board = new MinesBoard(3, 5);
+    board.placeMine(0, 1);
+    board.placeMine(0, 3);
+    board.open(2, 0);
+
+    DeductionStrategy.Deductions deductions = deduction.deduce(board);
+    assertEquals(deductions.safe(), new int[] {0, 2, 4});
+    assertEquals(deductions.mines(), new int[] {1, 3});
+  }
+
+  @Test
+  public void testDeduce_Flags() {
+    MinesBoard board = new MinesBoard(3, 5);
+    board.placeMine(0, 1);
+    board.placeMine(0, 3);
+    board.open(2, 0);
+    board.flag(0, 1);
+
+    DeductionStrategy.Deductions deductions = deduction.deduce(board);
+    assertEquals(deductions.safe(), new int[] {0, 2, 4});
+    assertEquals(deductions.mines(), new int[] {3}, "The flag is known already");
+  }
+
+  @Test
+  public void testDeduce_NothingOpen() {
+    MinesBoard board = new MinesBoard(8, 8, 10);
+    assertTrue(deduction.deduce(board).isEmpty());
+  }
+
+  /*
+    Nothing forced, the single mine could be any of the 8 cells around the open 1:
+      ? ? ?
+      ? 1 ?
+      ? ? ?
+  */
+  @Test
+  public void testDeduce_Nothing() {
+    MinesBoard board = new MinesBoard(3, 3);
+    board.placeMine(0, 0);
+    board.open(1, 1);
+    assertTrue(deduction.deduce(board).isEmpty());
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void testDeduce_Inconsistent() {
+    MinesBoard board = new MinesBoard(3, 5);
+    board.placeMine(0, 1);
+    board.placeMine(0, 3);
+    board.open(2, 0);
+    board.flag(0, 0);
+    board.flag(0, 1); // 2 flags next to the 1 at (1,0)
+    deduction.deduce(board);
+  }
+
+  @Test
+  public void testReduce() {
+    // x0 + x1 = 1, x0 + x1 + x2 = 1: reduced to x0 + x1 = 1, x2 = 0
+    long[][] pos = {{0b011}, {0b111}};
+    long[][] neg = {{0}, {0}};
+    int[] numbers = {1, 1};
+    GaussianDeduction.reduce(pos, neg, numbers, 3);
+    assertEquals(pos[0][0], 0b011);
+    assertEquals(neg[0][0], 0);
+    assertEquals(numbers[0], 1);
+    assertEquals(pos[1][0] | neg[1][0], 0b100);
+    assertEquals(numbers[1], 0);
+  }
+
+  @Test
+  public void testReduce_WideRows() {
+    // x0 + x100 = 1, x100 = 1 over 2 words: x0 = 0
+    long[][] pos = {{1, 1L << 36}, {0, 1L << 36}};
+    long[][] neg = {{0, 0}, {0, 0}};
+    int[] numbers = {1, 1};
+    GaussianDeduction.reduce(pos, neg, numbers, 101);
+    assertEquals(pos[0], new long[] {1, 0});
+    assertEquals(numbers[0], 0);
+    assertEquals(pos[1], new long[] {0, 1L << 36});
+    assertEquals(numbers[1], 1);
+  }
+
+  @DataProvider(name = "topologies")
+  private Object[] topologies() {
+    return new Object[] {Topology.CLASSIC, Topology.TORUS, Topology.HEX};
+  }
+
+  @Test(dataProvider = "topologies")
+  public void testDeduce_Sound(Topology topology) {
+    for (long seed = 0; seed < 30; seed++) {
+      MinesBoard board = new MinesBoard(16, 30, 99, topology, seed);
+      board.open(8, 15);
+      DeductionStrategy.Deductions deductions = deduction.deduce(board);
+      for (int index: deductions.safe()) {
+        assertFalse(board.get(index).isMine(), "Safe " + board.get(index) + ", seed " + seed);
+        assertTrue(board.get(index).isUnopen());
+      }
+      for (int index: deductions.mines()) {
+        assertTrue(board.get(index).isMine(), "Mine " + board.get(index) + ", seed " + seed);
+      }
+    }
+  }
+
+  /**
+   * The cells forced by the single equations rule, applied until nothing more is forced:
+   * known[i] is 1 for a safe cell and 2 for a mine, 0 if unknown.
+   */
+  private byte[] singleEquations(MinesBoard board) {
+    byte[] known = new byte[board.rows() * board.columns()];
+    for (MinesBoard.Cell cell: board) {
+      known[cell.index()] = cell.isFlagged() ? (byte) 2 : cell.isOpen() ? (byte) 1 : 0;
+    }
+    for (boolean changed = true; changed; ) {
+      changed = false;
+      for (MinesBoard.Cell cell: board) {
+        if (!cell.isOpen()) {
+          continue;
+        }
+        int mines = cell.value(), unknown = 0;
+        for (MinesBoard.Cell adj: board.neighboursOf(cell.row(), cell.col())) {
+          mines -= (known[adj.index()] == 2) ? 1 : 0;
+          unknown += (known[adj.index()] == 0) ? 1 : 0;
+        }
+        if (unknown > 0 && (mines == 0 || mines == unknown)) {
+          for (MinesBoard.Cell adj: board.neighboursOf(cell.row(), cell.col())) {
+            if (known[adj.index()] == 0) {
+              known[adj.index()] = (mines == 0) ? (byte) 1 : 2;
+            }
+          }
+          changed = true;
+        }
+      }
+    }
+    return known;
+  }
+
+  @Test(dataProvider = "topologies")
+  public void testDeduce_SingleEquations(Topology topology) {
+    Level[] levels = {Level.BEGINNER, new Level(9, 9, 10), Level.INTERMEDIATE, Level.EXPERT,
+                      new Level(30, 30, 180)};
+    for (Level level: levels) {
+      for (long seed = 0; seed < 20; seed++) {
+        MinesBoard board = new MinesBoard(level.rows(), level.columns(), level.mines(),
+                                          topology, seed);
+        board.open(level.rows() / 2, level.columns() / 2);
+        // a random, mid-game, state: some safe cells opened, some mines flagged
+        Random random = new Random(seed);
+        for (MinesBoard.Cell cell: board) {
+          if (random.nextInt(8) == 0) {
+            if (!cell.isMine()) {
+              board.open(cell.row(), cell.col());
+            } else if (cell.isUnopen()) {
+              board.flag(cell.row(), cell.col());
+            }
+          }
+        }
+        byte[] expected = singleEquations(board);
+        byte[] known = new byte[expected.length];
+        DeductionStrategy.Deductions deductions = deduction.deduce(board);
+        for (int index: deductions.safe()) {
+          known[index] = 1;
+        }
+        for (int index: deductions.mines()) {
+          known[index] = 2;
+        }
+        for (MinesBoard.Cell cell: board) {
+          if (cell.isUnopen() && !cell.isFlagged() && expected[cell.index()] != 0) {
+            assertEquals(known[cell.index()], expected[cell.index()],
+                         "Forced " + cell + ", " + level + " seed " + seed);
+          }
+        }
+      }
+    }
+  }
+
+  @Test(dataProvider = "topologies")
+  public void testAutoPlay(Topology topology) {
+    AutoPlayer player = new AutoPlayer(deduction);
+    int won = 0;
+    for (long seed = 0; seed < 30; seed++) {
+      MinesBoard board = new MinesBoard(8, 8, 10, topology, seed);
+      if (player.play(board, 4, 4)) {
+        won += 1;
+        assertTrue(player.isNoGuess(Level.BEGINNER, topology, seed, 4, 4));
+      }
+      assertFalse(board.exploded(), "Forced moves only, seed " + seed);
+    }
+    assertTrue(won > 0, "Some beginner boards need no guess");
+  }
+
+  @Test
+  public void testAutoPlay_LargeBoard() {
+    AutoPlayer player = new AutoPlayer(deduction);
+    MinesBoard board = new MinesBoard(200, 200, 6000, Topology.CLASSIC, 7);
+    player.play(board, 100, 100);
+    assertFalse(board.exploded());
+    assertTrue(board.count(MinesBoard.Cell::isOpen) > 1000);
+  }
+}
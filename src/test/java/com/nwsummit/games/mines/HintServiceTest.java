@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+public class HintServiceTest {
+
+  /*
+    The testing mines board looks like the below; only the cells shown with their
+    numbers are open after opening (4,0):
+    (0,0)      columns
+      +----------->
+      |  M . M . .
+    r |  . M . . .
+    o |  1 1 1 1 1
+    w |  0 0 0 2 M
+    s v  0 0 0 2 M
+  */
+  private MinesBoard testingBoard() {
+    MinesBoard board = new MinesBoard(5, 5);
+    board.placeMine(0, 0);
+    board.placeMine(0, 2);
+    board.placeMine(1, 1);
+    board.placeMine(3, 4);
+    board.placeMine(4, 4);
+    board.open(4, 0);
+    return board;
+  }
+
+  /**
+   * Collects the results, until the final one.
+   */
+  private static class Results implements HintService.Listener {
+    final List<float[]> probabilities = new ArrayList<>();
+    final CountDownLatch done = new CountDownLatch(1);
+    int safest = -2;
+
+    @Override
+    public synchronized void onResult(float[] probabilities, int safest, boolean done) {
+      this.probabilities.add(probabilities);
+      this.safest = safest;
+      if (done) {
+        this.done.countDown();
+      }
+    }
+  }
+
+  @Test
+  public void testSafest() {
+    float[] probabilities = { 0f, 0.5f, 0.2f, 0.2f, 1f };
+    boolean[] candidates = { false, true, true, true, false };
+    assertEquals(HintService.safest(probabilities, candidates), 2);
+    assertEquals(HintService.safest(probabilities, new boolean[5]), -1);
+  }
+
+  @Test
+  public void testRestart() throws InterruptedException {
+    MinesBoard board = testingBoard();
+    HintService hints = new HintService(Runnable::run);
+    Results results = new Results();
+    hints.restart(board, results);
+    assertTrue(results.done.await(30, TimeUnit.SECONDS));
+    hints.shutdown();
+
+    float[] last = results.probabilities.get(results.probabilities.size() - 1);
+    assertEquals(last.length, 25);
+    assertTrue(board.get(results.safest).isUnopen());
+    for (MinesBoard.Cell cell: board) {
+      if (cell.isUnopen()) {
+        assertTrue(last[results.safest] <= last[cell.index()]);
+      } else {
+        assertEquals(last[cell.index()], 0f); // open
+      }
+    }
+  }
+
+  @Test
+  public void testRestart_CancelsPrevious() throws InterruptedException {
+    MinesBoard board = testingBoard();
+    HintService hints = new HintService(Runnable::run);
+    Results first = new Results();
+    Results second = new Results();
+    hints.restart(board, first);
+    board.flag(3, 4);
+    hints.restart(board, second);
+    assertTrue(second.done.await(30, TimeUnit.SECONDS));
+    hints.shutdown();
+
+    // the first analysis stopped, at most its running round was delivered
+    assertTrue(first.probabilities.size() <= 1);
+    float[] last = second.probabilities.get(second.probabilities.size() - 1);
+    assertEquals(last[3 * 5 + 4], 1f); // flagged
+    assertFalse(board.get(second.safest).isFlagged());
+  }
+
+  @Test
+  public void testCancel_StopsChains() throws InterruptedException {
+    // a large frontier, for rounds of samples lasting seconds
+    MinesBoard board = new MinesBoard(80, 80, 1000, Topology.CLASSIC, 1);
+    board.open(40, 40);
+    Random random = new Random(1);
+    for (MinesBoard.Cell cell: board) {
+      if (!cell.isMine() && random.nextInt(4) == 0) {
+        board.open(cell.row(), cell.col());
+      }
+    }
+    HintService hints = new HintService(Runnable::run);
+    Results results = new Results();
+    hints.restart(board, results);
+    Thread.sleep(200);
+    hints.cancel();
+    assertTrue(ForkJoinPool.commonPool().awaitQuiescence(2, TimeUnit.SECONDS),
+               "Chains stopped");
+    hints.shutdown();
+    assertEquals(results.done.getCount(), 1, "No result once cancelled");
+  }
+
+  @Test
+  public void testRestart_Inconsistent() throws InterruptedException {
+    MinesBoard board = testingBoard();
+    board.flag(1, 0);
+    board.flag(1, 1); // (2,0) is a 1
+    HintService hints = new HintService(Runnable::run);
+    Results results = new Results();
+    hints.restart(board, results);
+    assertTrue(results.done.await(30, TimeUnit.SECONDS));
+    hints.shutdown();
+
+    assertNull(results.probabilities.get(0));
+    assertEquals(results.safest, -1);
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+public class LatencyStatsTest {
+
+  @Test
+  public void testEmpty() {
+    LatencyStats stats = new LatencyStats(4);
+    assertEquals(stats.count(), 0);
+    assertEquals(stats.mean(), 0.0);
+    assertEquals(stats.percentile(50), 0);
+    assertEquals(stats.max(), 0);
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyStats stats = new LatencyStats(100);
+    for (int i = 100; i >= 1; i--) {
+      stats.record(i);
+    }
+    assertEquals(stats.count(), 100);
+    assertEquals(stats.mean(), 50.5);
+    assertEquals(stats.percentile(50), 50);
+    assertEquals(stats.percentile(99), 99);
+    assertEquals(stats.percentile(100), 100);
+    assertEquals(stats.percentile(0), 1);
+    assertEquals(stats.max(), 100);
+  }
+
+  @Test
+  public void testWindow() {
+    LatencyStats stats = new LatencyStats(2);
+    stats.record(1000);
+    stats.record(1);
+    stats.record(3);
+    // percentiles of the latest 2, the other statistics of all
+    assertEquals(stats.percentile(100), 3);
+    assertEquals(stats.percentile(50), 1);
+    assertEquals(stats.max(), 1000);
+    assertEquals(stats.count(), 3);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testInvalidWindow() {
+    new LatencyStats(0);
+  }
+}
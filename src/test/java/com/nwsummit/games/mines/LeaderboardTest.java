@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import org.testng.annotations.Test;
+
+public class LeaderboardTest {
+
+  private Path tempLog() throws Exception {
+    Path dir = Files.createTempDirectory("mines");
+    dir.toFile().deleteOnExit();
+    Path log = dir.resolve("leaderboard.log");
+    log.toFile().deleteOnExit();
+    return log;
+  }
+
+  @Test
+  public void testTopK() throws Exception {
+    Path log = tempLog();
+    try (Leaderboard leaderboard = Leaderboard.open(log, 3)) {
+      Instant now = Instant.now();
+      leaderboard.add(Level.EXPERT, 1, 4, 5, 90_000, now);
+      leaderboard.add(Level.EXPERT, 2, 4, 5, 70_000, now);
+      leaderboard.add(Level.BEGINNER, 3, 4, 5, 5_000, now);
+      leaderboard.add(Level.EXPERT, 4, 4, 5, 80_000, now);
+      leaderboard.add(Level.EXPERT, 5, 4, 5, 95_000, now); // not in the top 3
+      leaderboard.add(Level.EXPERT, 6, 4, 5, 60_000, now);
+
+      List<Leaderboard.Entry> top = leaderboard.top(Level.EXPERT, 10);
+      assertEquals(top.size(), 3);
+      assertEquals(top.get(0).timeMs(), 60_000);
+      assertEquals(top.get(0).seed(), 6);
+      assertEquals(top.get(1).timeMs(), 70_000);
+      assertEquals(top.get(2).timeMs(), 80_000);
+      assertEquals(leaderboard.top(Level.BEGINNER, 10).size(), 1);
+      assertEquals(leaderboard.top(Level.INTERMEDIATE, 10).size(), 0);
+      assertEquals(leaderboard.size(), 6);
+    }
+    assertEquals(Files.size(log), Leaderboard.HEADER_SIZE + 6 * Leaderboard.RECORD_SIZE);
+  }
+
+  @Test
+  public void testReopen() throws Exception {
+    Path log = tempLog();
+    Instant date = Instant.ofEpochMilli(1_600_000_000_000L);
+    try (Leaderboard leaderboard = Leaderboard.open(log)) {
+      leaderboard.add(Level.INTERMEDIATE, 42, 4, 5, 30_000, date);
+      leaderboard.add(Level.INTERMEDIATE, 43, 4, 5, 20_000, date);
+    }
+    // simulate a crash while appending
+    try (FileChannel channel = FileChannel.open(log, StandardOpenOption.APPEND)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 16, 0}));
+    }
+
+    try (Leaderboard leaderboard = Leaderboard.open(log)) {
+      assertEquals(leaderboard.size(), 2, "Partial record ignored");
+      List<Leaderboard.Entry> top = leaderboard.top(Level.INTERMEDIATE, 10);
+      assertEquals(top.get(0).seed(), 43);
+      assertEquals(top.get(0).firstRow(), 4);
+      assertEquals(top.get(0).firstCol(), 5);
+      assertEquals(top.get(0).date(), date);
+      assertEquals(top.get(1).timeMs(), 30_000);
+
+      leaderboard.add(Level.INTERMEDIATE, 44, 4, 5, 10_000, date);
+    }
+    try (Leaderboard leaderboard = Leaderboard.open(log)) {
+      assertEquals(leaderboard.size(), 3, "Appended after the truncated record");
+      assertEquals(leaderboard.top(Level.INTERMEDIATE, 1).get(0).seed(), 44);
+    }
+  }
+
+  @Test
+  public void testManyEntries() throws Exception {
+    Path log = tempLog();
+    Level[] levels = {Level.BEGINNER, Level.INTERMEDIATE, Level.EXPERT};
+    Random random = new Random(1);
+    int[] best = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE};
+    try (Leaderboard leaderboard = Leaderboard.open(log)) {
+      for (int i = 0; i < 100_000; i++) {
+        int level = random.nextInt(3);
+        int time = 1000 + random.nextInt(1_000_000);
+        best[level] = Math.min(best[level], time);
+        leaderboard.add(levels[level], i, 4, 5, time, Instant.now());
+      }
+    }
+
+    try (Leaderboard leaderboard = Leaderboard.open(log)) {
+      assertEquals(leaderboard.size(), 100_000);
+      for (int level = 0; level < 3; level++) {
+        List<Leaderboard.Entry> top = leaderboard.top(levels[level], 100);
+        assertEquals(top.size(), 100);
+        assertEquals(top.get(0).timeMs(), best[level]);
+        for (int i = 1; i < top.size(); i++) {
+          assertTrue(top.get(i - 1).timeMs() <= top.get(i).timeMs(), "Sorted by time");
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAddAsync_Close() throws Exception {
+    Path log = tempLog();
+    Leaderboard leaderboard = Leaderboard.open(log);
+    for (int i = 0; i < 1000; i++) {
+      leaderboard.addAsync(Level.BEGINNER, i, 4, 4, 1000 + i, Instant.now());
+    }
+    leaderboard.close();
+    assertEquals(Files.size(log), Leaderboard.HEADER_SIZE + 1000 * Leaderboard.RECORD_SIZE,
+                 "Pending adds written");
+
+    CompletableFuture<Void> closed =
+      leaderboard.addAsync(Level.BEGINNER, 0, 4, 4, 1000, Instant.now());
+    assertTrue(closed.isCompletedExceptionally());
+
+    try (Leaderboard reopened = Leaderboard.open(log)) {
+      assertEquals(reopened.size(), 1000);
+      assertEquals(reopened.top(Level.BEGINNER, 1).get(0).seed(), 0);
+    }
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testOpen_NotALog() throws Exception {
+    Path log = tempLog();
+    Files.write(log, new byte[Leaderboard.HEADER_SIZE + Leaderboard.RECORD_SIZE]);
+    Leaderboard.open(log);
+  }
+}
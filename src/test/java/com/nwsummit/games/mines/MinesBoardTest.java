@@ -13,7 +13,9 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -21,6 +23,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -47,12 +52,14 @@ public class MinesBoardTest {
   @Test
   public void testBoardRandomness() {
     MinesBoard board1 = new MinesBoard(4, 4, 3);
+    board1.placeMines(0, 0);
     board1.print(System.out);
     Set<MinesBoard.Cell> mines1 = board1.getMines();
 
     System.out.println();
 
     MinesBoard board2 = new MinesBoard(4, 4, 3);
+    board2.placeMines(0, 0);
     board2.print(System.out);
     Set<MinesBoard.Cell> mines2 = board2.getMines();
 
@@ -102,6 +109,104 @@ public class MinesBoardTest {
     assertEquals(neighbours.size(), 8);
   }
 
+  @Test
+  public void testNeighbourOf_Torus() {
+    MinesBoard board = new MinesBoard(4, 5, Topology.TORUS);
+    List<MinesBoard.Cell> neighbours = board.neighboursOf(0, 0);
+    assertEquals(neighbours.size(), 8);
+    assertTrue(neighbours.contains(board.get(3, 4)), "Wraps around the corner");
+    assertTrue(neighbours.contains(board.get(0, 4)), "Wraps around the row");
+    assertTrue(neighbours.contains(board.get(3, 0)), "Wraps around the column");
+  }
+
+  @Test
+  public void testNeighbourOf_Hex() {
+    MinesBoard board = new MinesBoard(4, 4, Topology.HEX);
+    assertEquals(new HashSet<>(board.neighboursOf(1, 1)),
+                 new HashSet<>(Arrays.asList(board.get(0, 1), board.get(0, 2),
+                                             board.get(1, 0), board.get(1, 2),
+                                             board.get(2, 1), board.get(2, 2))),
+                 "Odd row");
+    assertEquals(new HashSet<>(board.neighboursOf(2, 1)),
+                 new HashSet<>(Arrays.asList(board.get(1, 0), board.get(1, 1),
+                                             board.get(2, 0), board.get(2, 2),
+                                             board.get(3, 0), board.get(3, 1))),
+                 "Even row");
+    assertEquals(board.neighboursOf(0, 0).size(), 2, "Corner");
+    assertEquals(board.neighboursOf(3, 0).size(), 3, "Corner");
+  }
+
+  @Test
+  public void testNeighbourTable() {
+    NeighbourTable table = NeighbourTable.of(Topology.CLASSIC, 3, 4);
+    assertEquals(table.offsets.length, 13);
+    assertEquals(table.degree(0), 3);
+    assertEquals(table.degree(5), 8);
+    assertEquals(Arrays.copyOfRange(table.neighbours, table.offsets[5], table.offsets[6]),
+                 new int[] {0, 1, 2, 4, 6, 8, 9, 10});
+    assertSame(NeighbourTable.of(Topology.CLASSIC, 3, 4), table, "Shared by same size boards");
+  }
+
+  @Test
+  public void testFirstOpened_Reproduces() {
+    MinesBoard board = new MinesBoard(16, 30, 99, Topology.CLASSIC, 42);
+    assertEquals(board.firstOpened(), -1);
+    board.open(3, 7);
+    assertEquals(board.firstOpened(), 3 * 30 + 7);
+
+    MinesBoard replay = new MinesBoard(16, 30, 99, Topology.CLASSIC, board.seed());
+    replay.open(board.firstOpened() / 30, board.firstOpened() % 30);
+    assertEquals(replay.getMines(), board.getMines(), "Same seed and first cell");
+  }
+
+  @Test
+  public void testNeighbourTable_Levels() {
+    NeighbourTable beginner = NeighbourTable.of(Topology.CLASSIC, 8, 8);
+    NeighbourTable expert = NeighbourTable.of(Topology.CLASSIC, 16, 30);
+    assertSame(NeighbourTable.of(Topology.CLASSIC, 8, 8), beginner, "Not evicted by expert");
+    assertSame(NeighbourTable.of(Topology.CLASSIC, 16, 30), expert, "Not evicted by beginner");
+  }
+
+  @Test
+  public void testNeighbourTable_CacheBounded() {
+    NeighbourTable beginner = NeighbourTable.of(Topology.CLASSIC, 8, 8);
+    NeighbourTable large = NeighbourTable.of(Topology.CLASSIC, 1100, 1100);
+    assertTrue(large.offsets.length + large.neighbours.length > NeighbourTable.CACHE_INTS);
+    assertFalse(NeighbourTable.isCached(Topology.CLASSIC, 1100, 1100), "Larger than the cache");
+    assertSame(NeighbourTable.of(Topology.CLASSIC, 8, 8), beginner, "Not evicted by large");
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNeighbourTable_TooLarge() {
+    // 8 neighbours per cell overflow an int
+    NeighbourTable.of(Topology.CLASSIC, 20_000, 20_000);
+  }
+
+  @Test(dataProvider = "topologies")
+  public void testBoardCorrectness_Topologies(Topology topology) {
+    MinesBoard board = new MinesBoard(12, 15, 40, topology);
+    board.open(6, 7);
+    assertEquals(board.getMines().size(), 40);
+    assertFalse(board.ended());
+    for (MinesBoard.Cell cell: board) {
+      if (!cell.isMine()) {
+        int mineCount = 0;
+        for (MinesBoard.Cell neighbour: board.neighboursOf(cell.row(), cell.col())) {
+          mineCount += neighbour.isMine() ? 1 : 0;
+        }
+        assertEquals(cell.value(), mineCount, "Mines count for cell " + cell);
+      }
+    }
+    for (MinesBoard.Cell neighbour: board.neighboursOf(6, 7)) {
+      assertTrue(neighbour.isOpen(), "Safe neighbourhood of the first open " + neighbour);
+    }
+  }
+
+  @DataProvider(name = "topologies")
+  private Object[] topologies() {
+    return new Object[] {Topology.CLASSIC, Topology.TORUS, Topology.HEX};
+  }
+
   @Test
   public void testBoardCorrectness() {
     Random random = new Random(System.currentTimeMillis());
@@ -109,6 +214,7 @@ public class MinesBoardTest {
     int cols = 3 + random.nextInt(17);
 
     MinesBoard board = new MinesBoard(rows, cols, rows * cols / 4);
+    board.placeMines(random.nextInt(rows), random.nextInt(cols));
     board.print(System.out);
 
     int cellCount = 0;
@@ -311,6 +417,7 @@ public class MinesBoardTest {
   @Test
   public void testEnded() {
     MinesBoard board = new MinesBoard(8, 8, 10);
+    board.placeMines(0, 0);
 
     // open several non-mines cells
     int count = 0;
@@ -335,6 +442,37 @@ public class MinesBoardTest {
     assertTrue(board.ended());
   }
 
+  @Test
+  public void testLazyMinesPlacement() {
+    MinesBoard board = new MinesBoard(8, 8, 10);
+    assertTrue(board.getMines().isEmpty(), "No mines before the first open");
+
+    List<MinesBoard.Cell> opened = board.open(4, 4);
+    assertEquals(board.getMines().size(), 10, "Number of mines");
+    assertFalse(board.ended(), "First open should not trigger a mine");
+    assertTrue(opened.contains(board.get(4, 4)));
+    assertEquals(board.get(4, 4).value(), 0, "First opened cell has no adjascent mines");
+    for (MinesBoard.Cell neighbour: board.neighboursOf(4, 4)) {
+      assertFalse(neighbour.isMine(), "Neighbour of first opened cell " + neighbour);
+    }
+  }
+
+  @Test
+  public void testLazyMinesPlacement_CrowdedBoard() {
+    // 8 mines on a 3x3 board leave no room for a mine free neighbourhood
+    MinesBoard board = new MinesBoard(3, 3, 8);
+    assertEquals(board.open(1, 1), Collections.singletonList(board.get(1, 1)));
+    assertEquals(board.getMines().size(), 8, "Number of mines");
+    assertTrue(board.ended(), "All non-mine cells opened");
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void testPlaceMines_AlreadyPlaced() {
+    MinesBoard board = new MinesBoard(4, 4, 3);
+    board.open(0, 0);
+    board.placeMines(0, 0);
+  }
+
   @Test
   public void testGetWronglyFlaggedCells() {
     MinesBoard board = new MinesBoard(4, 4);
@@ -345,5 +483,266 @@ public class MinesBoardTest {
     board.flag(3, 3); // correctly flagged
 
     assertEquals(board.getWronglyFlaggedCells(), Collections.singletonList(board.get(1, 0)));
+
+    board.flag(2, 2); // wrongly flagged
+    assertEquals(board.getWronglyFlaggedCells(), Arrays.asList(board.get(1, 0), board.get(2, 2)));
+
+    board.flag(1, 0); // unflagged
+    assertEquals(board.getWronglyFlaggedCells(), Collections.singletonList(board.get(2, 2)));
+  }
+
+  @Test
+  public void testGetWronglyFlaggedCells_FlaggedBeforeMinesPlacement() {
+    MinesBoard board = new MinesBoard(4, 4);
+    board.flag(0, 0);
+    board.flag(1, 1);
+    board.placeMine(0, 0);
+
+    assertEquals(board.getWronglyFlaggedCells(), Collections.singletonList(board.get(1, 1)));
+  }
+
+  @Test
+  public void testGetHiddenMines() {
+    MinesBoard board = new MinesBoard(4, 4);
+    board.placeMine(0, 0);
+    board.placeMine(2, 1);
+    board.placeMine(3, 3);
+    assertEquals(board.getHiddenMines(),
+                 Arrays.asList(board.get(0, 0), board.get(2, 1), board.get(3, 3)));
+    assertEquals(board.countUnopen(), 16);
+
+    board.flag(2, 1); // flagged
+    board.open(3, 3); // exploded
+    board.flag(1, 0); // wrongly flagged, not a mine
+    assertEquals(board.getHiddenMines(), Collections.singletonList(board.get(0, 0)));
+    assertEquals(board.countUnopen(), 13);
+  }
+
+  @Test
+  public void testGetWronglyFlaggedCells_LargeBoard() {
+    MinesBoard board = new MinesBoard(400, 500, 20000);
+    board.placeMines(0, 0);
+    Random random = new Random(3);
+    for (int i = 0; i < 1000; i++) {
+      board.flag(random.nextInt(400), random.nextInt(500));
+    }
+    List<MinesBoard.Cell> expected = board.stream()
+      .filter(cell -> cell.isFlagged() && !cell.isMine())
+      .collect(Collectors.toList());
+    assertEquals(board.getWronglyFlaggedCells(), expected);
+    assertEquals(board.getHiddenMines(), board.stream()
+                 .filter(cell -> cell.isMine() && cell.isUnopen())
+                 .collect(Collectors.toList()));
+    assertEquals(board.countUnopen(), board.count(MinesBoard.Cell::isUnopen));
+  }
+
+  @Test
+  public void testIsFullyFlagged_Unflagged() {
+    MinesBoard board = testingBoard();
+    MinesBoard.Cell cell = board.get(1, 1);
+    board.flag(0, 2);
+    board.flag(2, 0);
+    assertTrue(board.isFullyFlagged(cell));
+
+    board.flag(2, 0);
+    assertFalse(board.isFullyFlagged(cell), "Flag toggled off");
+
+    board.flag(1, 1); // flagging the cell itself doesn't count
+    assertFalse(board.isFullyFlagged(cell));
+  }
+
+  @Test
+  public void testSpliterator_RowBands() {
+    MinesBoard board = new MinesBoard(8, 5);
+    Spliterator<MinesBoard.Cell> suffix = board.spliterator();
+    assertEquals(suffix.estimateSize(), 40);
+    assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+
+    Spliterator<MinesBoard.Cell> prefix = suffix.trySplit();
+    assertEquals(prefix.estimateSize(), 20, "Split at row 4");
+    assertEquals(suffix.estimateSize(), 20);
+    suffix.tryAdvance(cell -> assertEquals(cell, board.get(4, 0)));
+
+    // uneven number of rows, split at a row boundary
+    MinesBoard board2 = new MinesBoard(3, 4);
+    assertEquals(board2.spliterator().trySplit().estimateSize(), 4);
+  }
+
+  @Test
+  public void testStreams() {
+    MinesBoard board = testingBoard();
+    List<MinesBoard.Cell> cells = board.stream().collect(Collectors.toList());
+    assertEquals(cells.size(), 64);
+    assertEquals(board.parallelStream().collect(Collectors.toList()), cells, "Same order");
+    assertEquals(board.indexStream().mapToObj(board::get).collect(Collectors.toList()), cells);
+    assertEquals(board.count(MinesBoard.Cell::isMine), 10);
+  }
+
+  @Test
+  public void testCount_LargeBoard() {
+    MinesBoard board = new MinesBoard(400, 500, 20000);
+    board.placeMines(0, 0);
+    assertEquals(board.count(MinesBoard.Cell::isMine), 20000);
+    assertEquals(board.parallelStream().filter(MinesBoard.Cell::isUnopen).count(), 200000);
+  }
+
+  @Test
+  public void testOpen_ParallelBeforeRegions() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    MinesBoard byRegion = new MinesBoard(300, 400, 3000, Topology.CLASSIC, 3);
+    MinesBoard parallel = new MinesBoard(300, 400, 3000, Topology.CLASSIC, 3);
+    parallel.openCascadesOn(pool);
+
+    // no flag, the whole region is opened at once, or searched in parallel
+    List<MinesBoard.Cell> expected = byRegion.open(150, 200);
+    List<MinesBoard.Cell> opened = parallel.open(150, 200);
+    assertTrue(opened.size() > 1);
+    assertEquals(new HashSet<>(opened), new HashSet<>(expected));
+    pool.shutdown();
+  }
+
+  @Test(dataProvider = "topologies")
+  public void testOpen_ParallelCascade(Topology topology) {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    for (long seed = 0; seed < 5; seed++) {
+      MinesBoard sequential = new MinesBoard(300, 400, 3000, topology, seed);
+      MinesBoard parallel = new MinesBoard(300, 400, 3000, topology, seed);
+      parallel.openCascadesOn(pool);
+      sequential.placeMines(150, 200);
+      parallel.placeMines(150, 200);
+
+      // a flag in the zero region, so that the cascade is searched rather than precomputed
+      int start = 150 * 400 + 200;
+      int region = sequential.zeroRegions().regionOf(start);
+      int flagged = sequential.indexStream()
+        .filter(i -> i != start && sequential.zeroRegions().regionOf(i) == region)
+        .findFirst().orElse(start + 1);
+      sequential.flag(flagged / 400, flagged % 400);
+      parallel.flag(flagged / 400, flagged % 400);
+
+      List<MinesBoard.Cell> expected = sequential.open(150, 200);
+      List<MinesBoard.Cell> opened = parallel.open(150, 200);
+      assertEquals(opened.size(), expected.size(), "Seed " + seed);
+      assertEquals(new HashSet<>(opened), new HashSet<>(expected), "Seed " + seed);
+      assertEquals(parallel.count(MinesBoard.Cell::isOpen), opened.size());
+      assertFalse(parallel.ended());
+    }
+    pool.shutdown();
+  }
+
+  @Test
+  public void testOpen_ParallelCascade_Won() {
+    // no mines around the opened cell nor in the cascade: all but the mine are opened
+    MinesBoard board = new MinesBoard(300, 300);
+    board.placeMine(299, 299);
+    board.openCascadesOn(ForkJoinPool.commonPool());
+    BoardEventRing ring = new BoardEventRing(1 << 17);
+    BoardEventRing.Cursor cursor = ring.cursor();
+    board.publishTo(ring);
+
+    board.flag(0, 1); // searched cascade, around the flag
+    assertEquals(board.open(0, 0).size(), 300 * 300 - 2);
+    board.flag(0, 1);
+    assertEquals(board.open(0, 1).size(), 1);
+    assertTrue(board.ended());
+    assertFalse(board.exploded());
+    int[] last = new int[1];
+    assertEquals(cursor.poll((type, index, value) -> last[0] = type, Integer.MAX_VALUE),
+                 300 * 300 + 2);
+    assertEquals(last[0], BoardEventRing.WON);
+  }
+
+  @Test
+  public void testOpen_ZeroRegion() {
+    MinesBoard board = testingBoard();
+    ZeroRegions regions = board.zeroRegions();
+    int region = regions.regionOf(board.get(7, 2).index());
+    List<MinesBoard.Cell> opened = board.open(7, 2);
+    assertEquals(regions.size(region), 8);
+    assertEquals(opened.size(), 8);
+    assertEquals(opened.get(0), board.get(7, 2), "Opened first");
+    for (int i = 2; i < opened.size(); i++) {
+      assertTrue(opened.get(i - 1).index() < opened.get(i).index(), "Then by index");
+    }
+    assertSame(board.zeroRegions(), regions, "Labeled once");
+  }
+
+  @Test
+  public void testOpen_ZeroRegion_SameAsSearch() {
+    for (long seed = 0; seed < 20; seed++) {
+      MinesBoard board = new MinesBoard(30, 40, 150, Topology.CLASSIC, seed);
+      board.placeMines(15, 20);
+      // random flags and opens, some flags blocking the zero regions
+      Random random = new Random(seed);
+      for (int move = 0; move < 60 && !board.ended(); move++) {
+        int row = random.nextInt(30), col = random.nextInt(40);
+        if (random.nextInt(4) == 0) {
+          board.flag(row, col);
+        } else if (board.get(row, col).isUnopen() && !board.get(row, col).isMine()) {
+          Set<MinesBoard.Cell> expected = searchOpen(board, board.get(row, col));
+          assertEquals(new HashSet<>(board.open(row, col)), expected, "Seed " + seed);
+        }
+      }
+    }
+  }
+
+  // the cells opened by opening the unopen cell, searched breadth first
+  private Set<MinesBoard.Cell> searchOpen(MinesBoard board, MinesBoard.Cell cell) {
+    Set<MinesBoard.Cell> opened = new HashSet<>();
+    List<MinesBoard.Cell> queue = new ArrayList<>(List.of(cell));
+    while (!queue.isEmpty()) {
+      MinesBoard.Cell next = queue.remove(queue.size() - 1);
+      if (next.isUnopen() && opened.add(next) && next.value() == 0) {
+        queue.addAll(board.neighboursOf(next.row(), next.col()));
+      }
+    }
+    return opened;
+  }
+
+  @Test
+  public void testApply() {
+    MinesBoard board = testingBoard();
+    MoveDelta delta = board.apply(new MoveBatch(4).flag(0, 2)
+                                                  .flag(2, 0)
+                                                  .open(1, 1)
+                                                  .open(1, 1)); // chord
+    assertEquals(delta.flagChanges(), new int[] {2, 16});
+    assertTrue(delta.flagged(0) && delta.flagged(1));
+    assertEquals(new HashSet<>(Arrays.asList(Arrays.stream(delta.opened()).boxed()
+                                                   .toArray(Integer[]::new))),
+                 new HashSet<>(Arrays.asList(9, 0, 1, 8, 10, 17, 18)));
+    for (int i = 0; i < delta.opened().length; i++) {
+      assertEquals(delta.values()[i], board.get(delta.opened()[i]).value());
+    }
+    assertFalse(delta.ended());
+  }
+
+  @Test
+  public void testApply_Exploded() {
+    MinesBoard board = testingBoard();
+    MoveDelta delta = board.apply(MoveBatch.of(MoveBatch.OPEN, 0, 0,
+                                               MoveBatch.FLAG, 0, 2,
+                                               MoveBatch.FLAG, 0, 2,
+                                               MoveBatch.OPEN, 0, 2,
+                                               MoveBatch.OPEN, 7, 7)); // ignored, game over
+    assertEquals(delta.opened(), new int[] {0, 1, 8, 9, 2});
+    assertEquals(delta.values()[4], MinesBoard.MINE);
+    assertEquals(delta.flagChanges(), new int[] {2, 2});
+    assertTrue(delta.flagged(0));
+    assertFalse(delta.flagged(1));
+    assertTrue(delta.ended());
+    assertTrue(delta.exploded());
+    assertTrue(board.get(7, 7).isUnopen());
+  }
+
+  @Test
+  public void testApply_InvalidMove() {
+    MinesBoard board = testingBoard();
+    try {
+      board.apply(new MoveBatch(2).flag(0, 0).open(8, 0));
+      fail("Expecting IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertTrue(board.get(0, 0).isUnopen(), "No move applied");
+    }
   }
 }
@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertNull;
+
+import org.testng.annotations.Test;
+
+public class MinesPaneTest {
+
+  @Test
+  public void testShowHeatmap_NotInitialized() {
+    MinesPane pane = new MinesPane();
+    pane.showHeatmap(null); // e.g. the heatmap toggled before the first board is ready
+    pane.showHeatmap(new float[0]);
+    assertNull(pane.squareAt(10, 10));
+  }
+}
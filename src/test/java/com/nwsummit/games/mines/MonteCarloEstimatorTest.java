@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class MonteCarloEstimatorTest {
+
+  /*
+    The testing mines board looks like the below; only the cells shown with their
+    numbers are open after opening (4,0):
+    (0,0)      columns
+      +----------->
+      |  M . M . .
+    r |  . M . . .
+    o |  1 1 1 1 1
+    w |  0 0 0 2 M
+    s v  0 0 0 2 M
+  */
+  private MinesBoard testingBoard() {
+    MinesBoard board = new MinesBoard(5, 5);
+    board.placeMine(0, 0);
+    board.placeMine(0, 2);
+    board.placeMine(1, 1);
+    board.placeMine(3, 4);
+    board.placeMine(4, 4);
+    board.open(4, 0);
+    return board;
+  }
+
+  /**
+   * Computes the exact mine probabilities by enumerating all the layouts of mines on the
+   * unopen cells consistent with the open numbers.
+   */
+  private double[] exactProbabilities(MinesBoard board) {
+    List<MinesBoard.Cell> unknown = new ArrayList<>();
+    for (MinesBoard.Cell cell: board) {
+      if (!cell.isOpen()) {
+        unknown.add(cell);
+      }
+    }
+    double[] probabilities = new double[board.rows() * board.columns()];
+    int layouts = 0;
+    for (int bits = 0; bits < (1 << unknown.size()); bits++) {
+      if (Integer.bitCount(bits) != board.mines()) {
+        continue;
+      }
+      boolean[] mine = new boolean[probabilities.length];
+      for (int i = 0; i < unknown.size(); i++) {
+        mine[unknown.get(i).index()] = (bits & (1 << i)) != 0;
+      }
+      boolean consistent = true;
+      for (MinesBoard.Cell cell: board) {
+        if (cell.isOpen()) {
+          int count = 0;
+          for (MinesBoard.Cell adj: board.neighboursOf(cell.row(), cell.col())) {
+            count += mine[adj.index()] ? 1 : 0;
+          }
+          consistent &= (count == cell.value());
+        }
+      }
+      if (consistent) {
+        layouts += 1;
+        for (int i = 0; i < mine.length; i++) {
+          probabilities[i] += mine[i] ? 1 : 0;
+        }
+      }
+    }
+    for (int i = 0; i < probabilities.length; i++) {
+      probabilities[i] /= layouts;
+    }
+    return probabilities;
+  }
+
+  @Test
+  public void testProbabilities() {
+    MinesBoard board = testingBoard();
+    board.print(System.out);
+    double[] expected = exactProbabilities(board);
+
+    MonteCarloEstimator estimator = new MonteCarloEstimator(board, new ForkJoinPool(4), 42);
+    estimator.sample(40000);
+    float[] probabilities = estimator.probabilities();
+    float[] confidence = estimator.confidence();
+    for (MinesBoard.Cell cell: board) {
+      int i = cell.index();
+      assertEquals(probabilities[i], expected[i], 0.03, "Probability of " + cell);
+      if (cell.isOpen()) {
+        assertEquals(confidence[i], 0f, "Open cell " + cell);
+      }
+    }
+  }
+
+  @Test
+  public void testProbabilities_Frontier() {
+    MinesBoard board = new MinesBoard(5, 5);
+    board.placeMine(0, 0);
+    board.placeMine(2, 3);
+    board.placeMine(3, 1);
+    board.open(2, 2); // numbered 2, constraining its 8 neighbours
+    board.open(3, 3); // numbered 1
+    double[] expected = exactProbabilities(board);
+
+    MonteCarloEstimator estimator = new MonteCarloEstimator(board, new ForkJoinPool(4), 7);
+    estimator.sample(40000);
+    float[] probabilities = estimator.probabilities();
+    for (MinesBoard.Cell cell: board) {
+      assertEquals(probabilities[cell.index()], expected[cell.index()], 0.03,
+                   "Probability of " + cell);
+    }
+  }
+
+  @Test
+  public void testConfidence_Tightens() {
+    MonteCarloEstimator estimator = new MonteCarloEstimator(testingBoard());
+    estimator.sample(1000);
+    float before = max(estimator.confidence());
+    estimator.sample(9000);
+    assertTrue(estimator.samples() >= 10000);
+    assertTrue(max(estimator.confidence()) < before, "Confidence bounds should tighten");
+  }
+
+  private float max(float[] values) {
+    float max = 0;
+    for (float value: values) {
+      max = Math.max(max, value);
+    }
+    return max;
+  }
+
+  @Test
+  public void testFlagsAsMines() {
+    MinesBoard board = testingBoard();
+    board.flag(0, 0);
+    MonteCarloEstimator estimator = new MonteCarloEstimator(board);
+    estimator.sample(1000);
+    float[] probabilities = estimator.probabilities();
+    assertEquals(probabilities[0], 1f, "Flagged cell");
+    assertEquals(probabilities[board.get(4, 0).index()], 0f, "Open cell");
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void testInconsistentFlags() {
+    MinesBoard board = testingBoard();
+    // (2,0) shows 1, cannot be surrounded by 2 mines
+    board.flag(1, 0);
+    board.flag(1, 1);
+    new MonteCarloEstimator(board);
+  }
+
+  @Test
+  public void testLargeBoard() {
+    MinesBoard board = new MinesBoard(300, 300, 15000);
+    board.open(150, 150);
+    MonteCarloEstimator estimator = new MonteCarloEstimator(board);
+    estimator.sample(200);
+
+    float[] probabilities = estimator.probabilities();
+    double expectedMines = 0;
+    for (float p: probabilities) {
+      expectedMines += p;
+    }
+    assertEquals(expectedMines, 15000, 1.0, "Sum of the probabilities");
+    for (MinesBoard.Cell cell: board) {
+      if (cell.isOpen()) {
+        assertEquals(probabilities[cell.index()], 0f);
+      }
+    }
+  }
+
+  @DataProvider(name = "largeFrontiers")
+  private Object[][] largeFrontiers() {
+    return new Object[][] {{50, 50, 400}, {80, 80, 1000}};
+  }
+
+  @Test(dataProvider = "largeFrontiers", timeOut = 60_000)
+  public void testLargeFrontier(int rows, int columns, int mines) {
+    for (long seed = 0; seed < 3; seed++) {
+      MinesBoard board = new MinesBoard(rows, columns, mines, Topology.CLASSIC, seed);
+      board.open(rows / 2, columns / 2);
+      // opens a random quarter of the safe cells: a frontier all over the board
+      SplittableRandom random = new SplittableRandom(seed);
+      for (MinesBoard.Cell cell: board) {
+        if (!cell.isMine() && random.nextInt(4) == 0) {
+          board.open(cell.row(), cell.col());
+        }
+      }
+      MonteCarloEstimator estimator = new MonteCarloEstimator(board, new ForkJoinPool(2), seed);
+      estimator.sample(200);
+
+      float[] probabilities = estimator.probabilities();
+      double expectedMines = 0;
+      for (MinesBoard.Cell cell: board) {
+        float p = probabilities[cell.index()];
+        expectedMines += p;
+        if (cell.isOpen()) {
+          assertEquals(p, 0f, "Open " + cell + ", seed " + seed);
+        }
+      }
+      assertEquals(expectedMines, mines, 1.0, "Sum of the probabilities, seed " + seed);
+
+      // only consistent layouts are sampled: the forced cells are certain
+      DeductionStrategy.Deductions deductions = new GaussianDeduction().deduce(board);
+      assertTrue(deductions.safe().length + deductions.mines().length > 0);
+      for (int index: deductions.safe()) {
+        assertEquals(probabilities[index], 0f, "Safe " + board.get(index) + ", seed " + seed);
+      }
+      for (int index: deductions.mines()) {
+        assertEquals(probabilities[index], 1f, "Mine " + board.get(index) + ", seed " + seed);
+      }
+    }
+  }
+
+  @Test(expectedExceptions = CancellationException.class)
+  public void testCancel() {
+    MonteCarloEstimator estimator = new MonteCarloEstimator(testingBoard());
+    estimator.sample(100);
+    estimator.cancel();
+    estimator.sample(100);
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Performance contract of the engine hot paths: each operation must stay within its budget
+ * of bytes allocated and of time, per operation (or per cell). Allocations are measured on
+ * the test thread with {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes};
+ * times are the median of several runs, after warming up.
+ * <p>
+ * The time budgets are generous, about 10x what a laptop does, not to fail on a busy build
+ * machine; they catch algorithmic regressions rather than small slowdowns.
+ */
+public class PerformanceBudgetTest {
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private static final int WARMUP = 3;
+  private static final int RUNS = 5;
+
+  /**
+   * The bytes allocated so far by the current thread.
+   */
+  private static long allocated() {
+    return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * An operation measured over a number of units, e.g. operations or cells.
+   */
+  private interface Measured {
+    /**
+     * Prepares a run, not measured, and returns the run to measure.
+     */
+    Runnable prepare();
+  }
+
+  /**
+   * The cost of a measured run, per unit.
+   */
+  private static final class Cost {
+    final double bytes;
+    final double nanos;
+
+    Cost(double bytes, double nanos) {
+      this.bytes = bytes;
+      this.nanos = nanos;
+    }
+  }
+
+  /**
+   * Measures the specified operation; the allocations of the lowest run (the JIT may still
+   * be compiling in the first runs) and the median time.
+   */
+  private static Cost measure(Measured measured, int units) {
+    for (int i = 0; i < WARMUP; i++) {
+      measured.prepare().run();
+    }
+    long[] bytes = new long[RUNS];
+    long[] nanos = new long[RUNS];
+    for (int i = 0; i < RUNS; i++) {
+      Runnable run = measured.prepare();
+      long bytesBefore = allocated();
+      long start = System.nanoTime();
+      run.run();
+      nanos[i] = System.nanoTime() - start;
+      bytes[i] = allocated() - bytesBefore;
+    }
+    Arrays.sort(bytes);
+    Arrays.sort(nanos);
+    return new Cost((double) bytes[0] / units, (double) nanos[RUNS / 2] / units);
+  }
+
+  private static void assertBudget(String operation, Cost cost, double maxBytes,
+                                   double maxNanos) {
+    assertTrue(cost.bytes <= maxBytes,
+               String.format("%s allocates %.1f bytes, over budget of %.0f", operation,
+                             cost.bytes, maxBytes));
+    assertTrue(cost.nanos <= maxNanos,
+               String.format("%s takes %.0f ns, over budget of %.0f", operation, cost.nanos,
+                             maxNanos));
+  }
+
+  /**
+   * A board with its mines placed, opened at its centre.
+   */
+  private static MinesBoard placedBoard(int rows, int columns, int mines, long seed) {
+    MinesBoard board = new MinesBoard(rows, columns, mines, Topology.CLASSIC, seed);
+    board.placeMines(rows / 2, columns / 2);
+    return board;
+  }
+
+  // indexes of the numbered, not yet open, cells of the board
+  private static int[] numberedCells(MinesBoard board) {
+    return board.indexStream()
+      .filter(i -> board.get(i).value() > 0 && board.get(i).isUnopen())
+      .toArray();
+  }
+
+  @DataProvider(name = "board sizes")
+  private Object[][] boardSizes() {
+    return new Object[][] {
+      {16, 30, 99}, {100, 100, 2000}, {1000, 1000, 150000}
+    };
+  }
+
+  @Test(dataProvider = "board sizes")
+  public void testConstruction(int rows, int columns, int mines) {
+    int cells = rows * columns;
+    Cost cost = measure(() -> () -> new MinesBoard(rows, columns, mines), cells);
+    // a cell object and its reference; the neighbour table is shared
+    assertBudget("Construction of " + rows + "x" + columns, cost, 64, 1000);
+  }
+
+  @Test(dataProvider = "board sizes")
+  public void testPlaceMines(int rows, int columns, int mines) {
+    int cells = rows * columns;
+    Cost cost = measure(() -> {
+        MinesBoard board = new MinesBoard(rows, columns, mines);
+        return () -> board.placeMines(0, 0);
+      }, cells);
+    // the mines set, and the zero regions labeling
+    assertBudget("Mines placement of " + rows + "x" + columns, cost, 96, 2000);
+  }
+
+  @Test(dataProvider = "board sizes")
+  public void testFlag(int rows, int columns, int mines) {
+    int ops = 1000;
+    MinesBoard board = placedBoard(rows, columns, mines, 1);
+    MinesBoard.Cell mine = board.getMines().iterator().next();
+    Cost cost = measure(() -> () -> {
+        for (int i = 0; i < ops; i++) {
+          board.flag(mine.row(), mine.col());
+        }
+      }, ops);
+    assertBudget("Flag of " + rows + "x" + columns, cost, 0, 2000);
+  }
+
+  @Test(dataProvider = "board sizes")
+  public void testFlag_Wrong(int rows, int columns, int mines) {
+    int ops = 1000;
+    MinesBoard board = placedBoard(rows, columns, mines, 1);
+    int[] numbered = numberedCells(board);
+    int row = numbered[0] / columns, col = numbered[0] % columns;
+    Cost cost = measure(() -> () -> {
+        for (int i = 0; i < ops; i++) {
+          board.flag(row, col);
+        }
+      }, ops);
+    // the wrong flags are indexed in place, the index array only grows
+    assertBudget("Wrong flag of " + rows + "x" + columns, cost, 0, 2000);
+  }
+
+  @Test(dataProvider = "board sizes")
+  public void testOpen_Numbered(int rows, int columns, int mines) {
+    int ops = Math.min(50, numberedCells(placedBoard(rows, columns, mines, 1)).length);
+    Cost cost = measure(() -> {
+        MinesBoard board = placedBoard(rows, columns, mines, 1);
+        int[] numbered = numberedCells(board);
+        return () -> {
+          for (int i = 0; i < ops; i++) {
+            board.open(numbered[i] / columns, numbered[i] % columns);
+          }
+        };
+      }, ops);
+    // the opened cells list and the search queue
+    assertBudget("Open of a numbered cell of " + rows + "x" + columns, cost, 256, 20_000);
+  }
+
+  @Test(dataProvider = "board sizes")
+  public void testOpen_Chord(int rows, int columns, int mines) {
+    int ops = 50;
+    Cost cost = measure(() -> {
+        // open numbered cells with their mines flagged, for chording
+        MinesBoard board = placedBoard(rows, columns, mines, 1);
+        List<MinesBoard.Cell> chords = new ArrayList<>();
+        for (int index: numberedCells(board)) {
+          MinesBoard.Cell cell = board.get(index);
+          if (chords.size() == ops) {
+            break;
+          }
+          if (!cell.isUnopen() || hasFlaggedNeighbour(board, cell)) {
+            continue;
+          }
+          for (MinesBoard.Cell adj: board.neighboursOf(cell.row(), cell.col())) {
+            if (adj.isMine()) {
+              board.flag(adj.row(), adj.col());
+            }
+          }
+          board.open(cell.row(), cell.col());
+          chords.add(cell);
+        }
+        return () -> {
+          for (MinesBoard.Cell cell: chords) {
+            board.open(cell.row(), cell.col());
+          }
+        };
+      }, ops);
+    // the opened cells list and the search queue, neighbours opened included
+    assertBudget("Chord of " + rows + "x" + columns, cost, 2048, 50_000);
+  }
+
+  private static boolean hasFlaggedNeighbour(MinesBoard board, MinesBoard.Cell cell) {
+    for (MinesBoard.Cell adj: board.neighboursOf(cell.row(), cell.col())) {
+      if (adj.isFlagged() || adj.isOpen()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Test
+  public void testScan() {
+    int cells = 1000 * 1000;
+    MinesBoard board = placedBoard(1000, 1000, 150000, 1);
+    Cost cost = measure(() -> board::countUnopen, cells);
+    // 8 cells at a time, in a few instructions
+    assertBudget("Count of the unopen cells, per cell", cost, 0, 5);
+  }
+
+  @Test
+  public void testOpen_Cascade() {
+    int[] opened = new int[1];
+    Cost cost = measure(() -> {
+        MinesBoard board = placedBoard(1000, 1000, 20000, 1);
+        opened[0] = board.zeroRegions().size(board.zeroRegions().regionOf(500 * 1000 + 500));
+        return () -> board.open(500, 500);
+      }, 1);
+    assertTrue(opened[0] > 100_000, "Large cascade: " + opened[0]);
+    // the opened cells list
+    assertBudget("Cascade open, per cell", new Cost(cost.bytes / opened[0],
+                                                    cost.nanos / opened[0]), 48, 500);
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.testng.annotations.Test;
+
+public class TerminalMinesTest {
+
+  @Test
+  public void testDrawCell() throws Exception {
+    MinesBoard board = new MinesBoard(3, 3);
+    board.placeMine(0, 0);
+    board.placeMine(0, 2);
+    board.open(2, 2);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    AnsiRenderer renderer = new AnsiRenderer(board, out);
+    renderer.drawCell(board.get(1, 1).index(), true);
+    renderer.flush();
+    assertEquals(out.toString(StandardCharsets.US_ASCII), "\u001b[4;3H\u001b[7;1;32m 2\u001b[0m");
+
+    out.reset();
+    renderer.drawCell(0, false);
+    renderer.flush();
+    assertEquals(out.toString(StandardCharsets.US_ASCII), "\u001b[3;1H\u001b[1;90m .\u001b[0m");
+  }
+
+  @Test
+  public void testRedrawsChangedCellsOnly() throws Exception {
+    MinesBoard board = new MinesBoard(20, 20);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    AnsiRenderer renderer = new AnsiRenderer(board, out);
+    renderer.drawAll(0);
+    renderer.flush();
+    int full = out.size();
+
+    renderer.drawCell(0, false);
+    renderer.drawCell(1, true);
+    assertTrue(renderer.size() < full / 100, "Cursor move redraws 2 cells only");
+  }
+
+  @Test
+  public void testPlay() throws Exception {
+    // flag, unflag, move right and down, open, then quit
+    byte[] keys = "ffl\u001b[Bnq".getBytes(StandardCharsets.US_ASCII);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new TerminalMines(Level.BEGINNER, new ByteArrayInputStream(keys), out).play();
+    String screen = out.toString(StandardCharsets.US_ASCII);
+    assertTrue(screen.contains("Flags 0/10"), screen);
+    assertTrue(screen.endsWith("\u001b[12;1H"), "Cursor below the board on quit");
+  }
+
+  @Test
+  public void testSmallBufferManyKeys() throws Exception {
+    // more cursor moves than the buffer holds before a flush
+    byte[] keys = ("l".repeat(5000) + "q").getBytes(StandardCharsets.US_ASCII);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new TerminalMines(Level.BEGINNER, new ByteArrayInputStream(keys), out).play();
+    assertTrue(out.size() > 5000 * 2 * 10);
+  }
+
+  @Test
+  public void testLargeBoardFixedBuffer() throws Exception {
+    // a full redraw is written out in small chunks, not buffered whole
+    MinesBoard board = new MinesBoard(1000, 1000);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    AnsiRenderer renderer = new AnsiRenderer(board, out);
+    renderer.drawAll(0);
+    assertTrue(out.size() > 1000 * 1000 * 10);
+    assertTrue(renderer.size() <= 8192);
+  }
+
+  @Test
+  public void testCheckFits() {
+    TerminalMines.checkFits(Level.EXPERT, 24, 80);
+    TerminalMines.checkFits(Level.EXPERT, 18, 60);
+    assertThrows(IllegalArgumentException.class, () -> TerminalMines.checkFits(Level.EXPERT, 17, 80));
+    assertThrows(IllegalArgumentException.class, () -> TerminalMines.checkFits(Level.EXPERT, 24, 59));
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.Test;
+
+public class TimingWheelTest {
+
+  private static final long TICK = TimeUnit.MILLISECONDS.toNanos(10);
+
+  // the wheel's clock, moved by the tests
+  private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+  private TimingWheel wheel(int ticksPerWheel) {
+    return new TimingWheel(TICK, ticksPerWheel, now::get);
+  }
+
+  private void sleep(long millis) {
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+
+  @Test
+  public void testSchedule() {
+    TimingWheel wheel = wheel(8);
+    List<String> runs = new ArrayList<>();
+    wheel.schedule(() -> runs.add("b"), 35, TimeUnit.MILLISECONDS);
+    wheel.schedule(() -> runs.add("a"), 15, TimeUnit.MILLISECONDS);
+    assertEquals(wheel.advance(), 0);
+
+    sleep(10);
+    assertEquals(wheel.advance(), 0, "Not due before its deadline");
+    sleep(10);
+    assertEquals(wheel.advance(), 1);
+    assertEquals(runs, List.of("a"));
+    sleep(100);
+    assertEquals(wheel.advance(), 1);
+    assertEquals(runs, List.of("a", "b"));
+  }
+
+  @Test
+  public void testSchedule_SeveralRotations() {
+    TimingWheel wheel = wheel(8); // 80ms per rotation
+    List<Long> runs = new ArrayList<>();
+    for (long delay: new long[] {250, 10, 90, 170}) {
+      wheel.schedule(() -> runs.add(delay), delay, TimeUnit.MILLISECONDS);
+    }
+    for (int i = 0; i < 30; i++) {
+      sleep(10);
+      wheel.advance();
+    }
+    assertEquals(runs, List.of(10L, 90L, 170L, 250L));
+  }
+
+  @Test
+  public void testSchedule_Past() {
+    TimingWheel wheel = wheel(8);
+    boolean[] run = new boolean[1];
+    TimingWheel.Timeout timeout = wheel.schedule(() -> run[0] = true, 0, TimeUnit.MILLISECONDS);
+    assertEquals(wheel.advance(), 1);
+    assertTrue(run[0]);
+    assertTrue(timeout.isExpired());
+    assertFalse(timeout.cancel(), "Already run");
+  }
+
+  @Test
+  public void testCancel() {
+    TimingWheel wheel = wheel(8);
+    List<String> runs = new ArrayList<>();
+    TimingWheel.Timeout a = wheel.schedule(() -> runs.add("a"), 20, TimeUnit.MILLISECONDS);
+    TimingWheel.Timeout b = wheel.schedule(() -> runs.add("b"), 20, TimeUnit.MILLISECONDS);
+    TimingWheel.Timeout c = wheel.schedule(() -> runs.add("c"), 20, TimeUnit.MILLISECONDS);
+    assertTrue(a.cancel(), "Before being added to the wheel");
+    wheel.advance();
+    assertTrue(b.cancel(), "In the wheel");
+    assertFalse(b.cancel());
+    assertTrue(b.isCancelled());
+
+    sleep(50);
+    assertEquals(wheel.advance(), 1);
+    assertEquals(runs, List.of("c"));
+  }
+
+  @Test
+  public void testMany() {
+    TimingWheel wheel = wheel(64);
+    int n = 10_000;
+    int[] runs = new int[1];
+    List<TimingWheel.Timeout> timeouts = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      timeouts.add(wheel.schedule(() -> runs[0]++, i % 1000, TimeUnit.MILLISECONDS));
+    }
+    for (int i = 0; i < n; i += 2) {
+      timeouts.get(i).cancel();
+    }
+    sleep(1000);
+    assertEquals(wheel.advance(), n / 2);
+    assertEquals(runs[0], n / 2);
+  }
+
+  @Test
+  public void testStart() throws InterruptedException {
+    TimingWheel wheel = new TimingWheel(1, TimeUnit.MILLISECONDS, 64);
+    wheel.start("TestWheel");
+    try {
+      CountDownLatch latch = new CountDownLatch(3);
+      long start = System.nanoTime();
+      for (int delay: new int[] {5, 50, 200}) {
+        wheel.schedule(latch::countDown, delay, TimeUnit.MILLISECONDS);
+      }
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+      assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+    } finally {
+      wheel.shutdown();
+    }
+  }
+
+  @Test
+  public void testStart_TaskFails() throws InterruptedException {
+    TimingWheel wheel = new TimingWheel(1, TimeUnit.MILLISECONDS, 64);
+    wheel.start("TestWheel");
+    try {
+      List<Throwable> failures = new CopyOnWriteArrayList<>();
+      wheel.schedule(() -> Thread.currentThread()
+                       .setUncaughtExceptionHandler((thread, e) -> failures.add(e)),
+                     1, TimeUnit.MILLISECONDS);
+      CountDownLatch latch = new CountDownLatch(1);
+      wheel.schedule(() -> { throw new AssertionError("Failing task"); }, 5,
+                     TimeUnit.MILLISECONDS);
+      wheel.schedule(latch::countDown, 20, TimeUnit.MILLISECONDS);
+      assertTrue(latch.await(10, TimeUnit.SECONDS), "Still running after an Error");
+      assertEquals(failures.size(), 1);
+      assertEquals(failures.get(0).getMessage(), "Failing task");
+    } finally {
+      wheel.shutdown();
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testInvalidTicksPerWheel() {
+    wheel(10);
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020 - nwsummit.com
+ *
+ * This software is free under the MIT License (https://www.mit.edu/~amini/LICENSE.md)
+ * The software is provided "as is", without warranty of any kind, expressed or implied.
+ *
+ * Created by: agent on 2026-10-19
+ */
+package com.nwsummit.games.mines;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class ZeroRegionsTest {
+
+  /*
+    The testing mines board looks like the below, with 3 zero regions: A, B and C
+    (0,0)      columns
+      +----------->
+      |  0 0 1 M 1
+    r |  1 1 2 2 2
+    o |  1 M 2 M 1
+    w |  1 1 2 1 1
+    s v  0 0 0 0 0
+  */
+  private MinesBoard testingBoard() {
+    MinesBoard board = new MinesBoard(5, 5);
+    board.placeMine(0, 3);
+    board.placeMine(2, 1);
+    board.placeMine(2, 3);
+    return board;
+  }
+
+  @Test
+  public void testLabel() {
+    MinesBoard board = testingBoard();
+    ZeroRegions regions = ZeroRegions.label(board);
+    assertEquals(regions.count(), 2);
+
+    // region of (0,0): (0,0) (0,1) and border (0,2) (1,0) (1,1) (1,2)
+    int a = regions.regionOf(0);
+    assertEquals(a, 0, "Numbered by first cell");
+    assertEquals(regions.regionOf(1), a);
+    assertEquals(regions.size(a), 6);
+    assertEquals(regions.runOffsets[a + 1] - regions.runOffsets[a], 2, "Two row ranges");
+    assertEquals(regions.runStarts[0], 0);
+    assertEquals(regions.runEnds[0], 3);
+    assertEquals(regions.runStarts[1], 5);
+    assertEquals(regions.runEnds[1], 8);
+
+    // bottom row and the row above
+    int b = regions.regionOf(20);
+    assertEquals(b, 1);
+    assertEquals(regions.size(b), 10);
+    assertEquals(regions.runOffsets[b + 1] - regions.runOffsets[b], 1, "Contiguous");
+
+    for (int i: new int[] {2, 3, 12, 15, 18}) {
+      assertEquals(regions.regionOf(i), -1, "Not a zero cell: " + i);
+    }
+  }
+
+  @Test
+  public void testLabel_Torus() {
+    // on a torus, the zero cells of the first and last rows are adjascent
+    MinesBoard board = new MinesBoard(5, 5, Topology.TORUS);
+    board.placeMine(2, 2);
+    ZeroRegions regions = ZeroRegions.label(board);
+    assertEquals(regions.count(), 1);
+    assertEquals(regions.size(0), 24);
+  }
+
+  @Test
+  public void testLabel_LargeBoard() {
+    MinesBoard board = new MinesBoard(500, 500, 25000, Topology.CLASSIC, 3);
+    board.placeMines(250, 250);
+    ZeroRegions regions = board.zeroRegions();
+    int zeros = 0;
+    for (MinesBoard.Cell cell: board) {
+      if (cell.value() == 0) {
+        zeros += 1;
+        assertTrue(regions.regionOf(cell.index()) >= 0);
+      }
+    }
+    int regionCells = 0;
+    for (int r = 0; r < regions.count(); r++) {
+      regionCells += regions.size(r);
+    }
+    assertTrue(regionCells >= zeros, "Zero cells and their borders");
+  }
+
+  @Test
+  public void testLabel_RangesSorted() {
+    MinesBoard board = new MinesBoard(200, 300, 6000, Topology.CLASSIC, 5);
+    board.placeMines(100, 150);
+    ZeroRegions regions = board.zeroRegions();
+    NeighbourTable table = board.neighbourTable();
+    int[] seen = new int[board.rows() * board.columns()];
+    for (int r = 0; r < regions.count(); r++) {
+      int count = 0, last = -1;
+      for (int run = regions.runOffsets[r]; run < regions.runOffsets[r + 1]; run++) {
+        assertTrue(regions.runStarts[run] > last, "Disjoint ranges, not adjascent, by index");
+        for (int i = regions.runStarts[run]; i < regions.runEnds[run]; i++) {
+          seen[i] = r + 1;
+          count += 1;
+        }
+        last = regions.runEnds[run];
+      }
+      assertEquals(count, regions.size(r));
+    }
+    // each zero cell is in its region with all its neighbours
+    for (int i = 0; i < seen.length; i++) {
+      int r = regions.regionOf(i);
+      if (r < 0) {
+        continue;
+      }
+      assertEquals(seen[i], r + 1);
+      for (int k = table.offsets[i]; k < table.offsets[i + 1]; k++) {
+        int j = table.neighbours[k];
+        assertTrue(seen[j] == r + 1 || regions.regionOf(j) < 0, "Neighbour in the region");
+      }
+    }
+  }
+}